@@ -0,0 +1,19 @@
+package checker;
+
+/**
+ * Stub of the checker, used to build the project when the checker isn't in src/checker.
+ * It scores nothing: run the real checker to compare the outputs with the references.
+ */
+public final class Checker {
+    /**
+     * for coding style
+     */
+    private Checker() {
+    }
+
+    /**
+     * Scores the outputs of the tests, which the stub doesn't do.
+     */
+    public static void calculateScore() {
+    }
+}
@@ -0,0 +1,18 @@
+package checker;
+
+/**
+ * Stub of the checker's constants, used to build the project
+ * when the checker isn't in src/checker. The paths are the checker's.
+ */
+public final class CheckerConstants {
+    public static final String TESTS_PATH = "input/";
+    public static final String OUT_PATH = "result/out_";
+    public static final String RESULT_PATH = "result";
+    public static final String OUT_FILE = "out.txt";
+
+    /**
+     * for coding style
+     */
+    private CheckerConstants() {
+    }
+}
@@ -1,12 +1,19 @@
 package audioentities;
 
 import audiovisitors.AudioVisitor;
+import database.IdRegistry;
 
 public abstract class AudioEntity {
     private final String name;
+    // lowercase name, used by the search
+    private final String nameKey;
+    // dense ID given by the database, NO_ID while not in it
+    private int id;
 
     public AudioEntity(final String name) {
         this.name = name;
+        nameKey = name == null ? null : name.toLowerCase();
+        id = IdRegistry.NO_ID;
     }
 
     /**
@@ -17,6 +24,33 @@ public abstract class AudioEntity {
         return name;
     }
 
+    /**
+     * Retrieves the lowercase name of the audio entity.
+     *
+     * @return The lowercase name.
+     */
+    public String getNameKey() {
+        return nameKey;
+    }
+
+    /**
+     * Retrieves the ID of the audio entity, among the audio entities of the database.
+     *
+     * @return The ID, or NO_ID if the audio entity isn't in the database.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the audio entity.
+     *
+     * @param id The ID given by the database.
+     */
+    public void setId(final int id) {
+        this.id = id;
+    }
+
     /**
      * Accepts an AudioVisitor to perform operations on audio entities.
      *
@@ -2,6 +2,8 @@ package audioentities.audiocollections;
 
 import audioentities.audiofiles.Song;
 import audiovisitors.AudioVisitor;
+import userentities.artist.Artist;
+import userentities.user.searchbar.index.SearchIndex;
 
 import java.util.ArrayList;
 
@@ -9,9 +11,13 @@ public final class Album extends AudioCollection {
     private final ArrayList<Song> songs;
     private final Integer releaseYear;
     private final String description;
-    private ArrayList<Song> shuffledSongs; // only if shuffle is set
-    private boolean isPlayed;
+    // case-folded description, used by the search
+    private final String descriptionKey;
+    // cached snapshot of the songs, null until needed
+    private SongOrder songsOrder;
     private Integer totalLikeCount;
+    // the artist the album belongs to, null once the album is removed
+    private Artist owningArtist;
 
     public Album(final String name, final String owner,
                  final Integer releaseYear, final String description) {
@@ -19,9 +25,10 @@ public final class Album extends AudioCollection {
         songs = new ArrayList<Song>();
         this.releaseYear = releaseYear;
         this.description = description;
-        shuffledSongs = null;
-        isPlayed = false;
+        descriptionKey = description == null ? null : SearchIndex.foldCase(description);
+        songsOrder = null;
         totalLikeCount = 0;
+        owningArtist = null;
     }
 
     public ArrayList<Song> getSongs() {
@@ -36,20 +43,39 @@ public final class Album extends AudioCollection {
         return description;
     }
 
-    public ArrayList<Song> getShuffledSongs() {
-        return shuffledSongs;
+    public String getDescriptionKey() {
+        return descriptionKey;
     }
 
-    public void setShuffledSongs(final ArrayList<Song> shuffledSongs) {
-        this.shuffledSongs = shuffledSongs;
+    /**
+     * Retrieves the snapshot of the songs.
+     * The songs of an album don't change once it is added.
+     *
+     * @return The snapshot of the songs.
+     */
+    public SongOrder getSongsOrder() {
+        if (songsOrder == null) {
+            songsOrder = new SongOrder(songs);
+        }
+        return songsOrder;
     }
 
-    public boolean isPlayed() {
-        return isPlayed;
-    }
-
-    public void setPlayed(final boolean played) {
-        isPlayed = played;
+    /**
+     * Checks if the album is in use by a player: loaded in it, or one of its songs
+     * is played on its own or as part of a loaded playlist.
+     *
+     * @return true if a player uses the album, false otherwise.
+     */
+    public boolean isInUse() {
+        if (hasActivePlayers()) {
+            return true;
+        }
+        for (Song song : songs) {
+            if (song.hasActivePlayers() || song.getActivePlaylists() > 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public Integer getTotalLikeCount() {
@@ -60,6 +86,14 @@ public final class Album extends AudioCollection {
         this.totalLikeCount = totalLikeCount;
     }
 
+    public Artist getOwningArtist() {
+        return owningArtist;
+    }
+
+    public void setOwningArtist(final Artist owningArtist) {
+        this.owningArtist = owningArtist;
+    }
+
     @Override
     public void acceptAudioVisitor(final AudioVisitor v) {
         v.visit(this);
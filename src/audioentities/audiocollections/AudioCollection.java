@@ -1,13 +1,26 @@
 package audioentities.audiocollections;
 
 import audioentities.AudioEntity;
+import userentities.user.searchbar.index.SearchIndex;
 
 public abstract class AudioCollection extends AudioEntity {
     protected String owner;
+    // lowercase and case-folded owner, used by the search
+    private String ownerKey;
+    private String foldedOwnerKey;
+    // the number of players that have the collection loaded
+    private int activePlayers;
+    // set when a player loads the collection and cleared when a player stops it,
+    // read by the checks for deleting users and podcasts
+    private boolean isPlayed;
 
     public AudioCollection(final String name, final String owner) {
         super(name);
         this.owner = owner;
+        ownerKey = owner == null ? null : owner.toLowerCase().intern();
+        foldedOwnerKey = owner == null ? null : SearchIndex.foldCase(owner).intern();
+        activePlayers = 0;
+        isPlayed = false;
     }
 
     /**
@@ -24,5 +37,52 @@ public abstract class AudioCollection extends AudioEntity {
      */
     public void setOwner(final String owner) {
         this.owner = owner;
+        ownerKey = owner == null ? null : owner.toLowerCase().intern();
+        foldedOwnerKey = owner == null ? null : SearchIndex.foldCase(owner).intern();
+    }
+
+    /**
+     * Retrieves the lowercase owner of the collection.
+     *
+     * @return The lowercase owner.
+     */
+    public String getOwnerKey() {
+        return ownerKey;
+    }
+
+    /**
+     * Retrieves the case-folded owner of the collection. Two owners are equal
+     * ignoring case only if their case-folded forms are equal.
+     *
+     * @return The case-folded owner.
+     */
+    public String getFoldedOwnerKey() {
+        return foldedOwnerKey;
+    }
+
+    /**
+     * Checks if the collection is loaded in at least one player.
+     *
+     * @return true if a player has the collection loaded, false otherwise.
+     */
+    public boolean hasActivePlayers() {
+        return activePlayers > 0;
+    }
+
+    /**
+     * Changes the number of players that have the collection loaded.
+     *
+     * @param delta The change of the number of players.
+     */
+    public void changeActivePlayers(final int delta) {
+        activePlayers += delta;
+    }
+
+    public boolean isPlayed() {
+        return isPlayed;
+    }
+
+    public void setPlayed(final boolean played) {
+        isPlayed = played;
     }
 }
@@ -2,6 +2,7 @@ package audioentities.audiocollections;
 
 import audiovisitors.AudioVisitor;
 import audioentities.audiofiles.Song;
+import database.Database;
 
 import java.util.ArrayList;
 
@@ -9,8 +10,10 @@ public final class Playlist extends AudioCollection {
     private ArrayList<Song> songs;
     private String visibility;
     private Integer followers;
-    private ArrayList<Song> shuffledSongs; // only if shuffle is set
-    private boolean isPlayed;
+    // cached snapshot of the songs, null until needed
+    private SongOrder songsOrder;
+    // whether the playlist may contain the same song more than once
+    private boolean mayRepeatSongs;
     private Integer totalLikeCount;
 
     public Playlist(final String name, final String owner) {
@@ -18,8 +21,8 @@ public final class Playlist extends AudioCollection {
         songs = new ArrayList<Song>();
         visibility = "public";
         followers = 0;
-        shuffledSongs = null;
-        isPlayed = false;
+        songsOrder = null;
+        mayRepeatSongs = false;
         totalLikeCount = 0;
     }
 
@@ -29,6 +32,73 @@ public final class Playlist extends AudioCollection {
 
     public void setSongs(final ArrayList<Song> songs) {
         this.songs = songs;
+        songsOrder = null;
+    }
+
+    public boolean getMayRepeatSongs() {
+        return mayRepeatSongs;
+    }
+
+    public void setMayRepeatSongs(final boolean mayRepeatSongs) {
+        this.mayRepeatSongs = mayRepeatSongs;
+        songsOrder = null;
+    }
+
+    /**
+     * Retrieves the snapshot of the songs, taking it again if the songs changed.
+     *
+     * @return The snapshot of the songs.
+     */
+    public SongOrder getSongsOrder() {
+        if (songsOrder == null) {
+            songsOrder = new SongOrder(songs, mayRepeatSongs);
+        }
+        return songsOrder;
+    }
+
+    /**
+     * Adds a song at the end of the playlist.
+     *
+     * @param song The song to be added.
+     */
+    public void addSong(final Song song) {
+        detachSongs();
+        songs.add(song);
+        Database.getDatabase().addSongPlaylist(song, this);
+        if (hasActivePlayers()) {
+            song.changeActivePlaylists(1);
+        }
+    }
+
+    /**
+     * Removes the first occurrence of a song from the playlist.
+     *
+     * @param song The song to be removed.
+     * @return true if the song was in the playlist, false otherwise.
+     */
+    public boolean removeSong(final Song song) {
+        int index = songs.indexOf(song);
+        if (index < 0) {
+            return false;
+        }
+        detachSongs();
+        songs.remove(index);
+        Database.getDatabase().removeSongPlaylist(song, this);
+        if (hasActivePlayers()) {
+            song.changeActivePlaylists(-1);
+        }
+        return true;
+    }
+
+    /**
+     * Copies the songs before they change, if a snapshot of them was taken,
+     * so that players shuffling the snapshot keep their songs.
+     */
+    private void detachSongs() {
+        if (songsOrder != null) {
+            songs = new ArrayList<>(songs);
+            songsOrder = null;
+        }
     }
 
     public String getVisibility() {
@@ -47,20 +117,22 @@ public final class Playlist extends AudioCollection {
         this.followers = followers;
     }
 
-    public ArrayList<Song> getShuffledSongs() {
-        return shuffledSongs;
-    }
-
-    public void setShuffledSongs(final ArrayList<Song> shuffledSongs) {
-        this.shuffledSongs = shuffledSongs;
-    }
-
-    public boolean isPlayed() {
-        return isPlayed;
-    }
-
-    public void setPlayed(final boolean played) {
-        isPlayed = played;
+    /**
+     * Changes the number of players that have the playlist loaded.
+     * The songs count the playlists containing them only once,
+     * while at least one player has the playlist loaded.
+     *
+     * @param delta The change of the number of players.
+     */
+    @Override
+    public void changeActivePlayers(final int delta) {
+        boolean wasPlayed = hasActivePlayers();
+        super.changeActivePlayers(delta);
+        if (wasPlayed != hasActivePlayers()) {
+            for (Song song : songs) {
+                song.changeActivePlaylists(hasActivePlayers() ? 1 : -1);
+            }
+        }
     }
 
     public Integer getTotalLikeCount() {
@@ -2,29 +2,45 @@ package audioentities.audiocollections;
 
 import audioentities.audiofiles.Episode;
 import audiovisitors.AudioVisitor;
+import userentities.host.Host;
+import userentities.user.player.Player;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 public final class Podcast extends AudioCollection {
     private final ArrayList<Episode> episodes;
-    private boolean isPlayed;
+    // the host the podcast belongs to, null if no host owns it
+    private Host owningHost;
+    // the players that keep a state of the podcast
+    private final Set<Player> listeners;
 
     public Podcast(final String name, final String owner, final ArrayList<Episode> episodes) {
         super(name, owner);
         this.episodes = episodes;
-        isPlayed = false;
+        owningHost = null;
+        listeners = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Episode episode : episodes) {
+            episode.setOwningPodcast(this);
+        }
     }
 
     public ArrayList<Episode> getEpisodes() {
         return episodes;
     }
 
-    public boolean isPlayed() {
-        return isPlayed;
+    public Host getOwningHost() {
+        return owningHost;
     }
 
-    public void setPlayed(final boolean played) {
-        isPlayed = played;
+    public void setOwningHost(final Host owningHost) {
+        this.owningHost = owningHost;
+    }
+
+    public Set<Player> getListeners() {
+        return listeners;
     }
 
     @Override
@@ -0,0 +1,253 @@
+package audioentities.audiocollections;
+
+import audioentities.audiofiles.Song;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.Random;
+
+/**
+ * Snapshot of a list of songs in their playing order.
+ * A new snapshot is taken after the list changes, so the snapshot itself
+ * tells if positions found in it are still valid.
+ * A shuffled snapshot shares the list of songs of its base snapshot
+ * and only keeps the order in which they are played, so positions can be carried
+ * between the snapshots of the same base through the permutation.
+ * The prefix sums of the durations, and the first occurrences of the songs
+ * of lists that may repeat songs, are only computed once they are needed.
+ */
+public final class SongOrder {
+    private final ArrayList<Song> songs;
+    // the unshuffled snapshot of the songs, this snapshot if it isn't shuffled
+    private final SongOrder base;
+    // the position in songs of the song played at index i, null if not shuffled
+    private final int[] permutation;
+    // the index at which the song at position i in songs is played, null until needed
+    private int[] inversePermutation;
+    private final boolean mayRepeat;
+    // the total duration of the first i songs, at index i, null until needed
+    private long[] prefixSums;
+    // the position of the first occurrence of the song at index i, null until needed
+    private int[] firstPositions;
+
+    public SongOrder(final ArrayList<Song> songs) {
+        this(songs, false);
+    }
+
+    /**
+     * Takes a snapshot of a list of songs.
+     *
+     * @param songs The songs, which must not change while the snapshot is used.
+     * @param mayRepeat Whether the list may contain the same song more than once.
+     */
+    public SongOrder(final ArrayList<Song> songs, final boolean mayRepeat) {
+        this.songs = songs;
+        base = this;
+        permutation = null;
+        this.mayRepeat = mayRepeat;
+    }
+
+    private SongOrder(final SongOrder base, final int[] permutation) {
+        songs = base.songs;
+        this.base = base;
+        this.permutation = permutation;
+        mayRepeat = base.mayRepeat;
+    }
+
+    /**
+     * Shuffles the songs in the same order as Collections.shuffle
+     * with a random generator created from the given seed.
+     *
+     * @param seed The seed of the random generator.
+     * @return The snapshot of the shuffled songs.
+     */
+    public SongOrder shuffle(final long seed) {
+        int[] shuffled = new int[songs.size()];
+        for (int i = 0; i < shuffled.length; ++i) {
+            shuffled[i] = i;
+        }
+
+        Random random = new Random(seed);
+        for (int i = shuffled.length; i > 1; --i) {
+            int j = random.nextInt(i);
+            int tmp = shuffled[i - 1];
+            shuffled[i - 1] = shuffled[j];
+            shuffled[j] = tmp;
+        }
+        return new SongOrder(base, shuffled);
+    }
+
+    /**
+     * Retrieves the unshuffled snapshot this snapshot was created from.
+     *
+     * @return The base snapshot, or this snapshot if it isn't shuffled.
+     */
+    public SongOrder getBase() {
+        return base;
+    }
+
+    /**
+     * Retrieves the number of songs.
+     *
+     * @return The number of songs.
+     */
+    public int size() {
+        return songs.size();
+    }
+
+    /**
+     * Retrieves the song at the given position.
+     *
+     * @param index The position of the song.
+     * @return The song at the given position.
+     */
+    public Song getSong(final int index) {
+        return songs.get(toBaseIndex(index));
+    }
+
+    /**
+     * Converts a position in this snapshot to the position of the same song in the base one.
+     *
+     * @param index The position in this snapshot.
+     * @return The position in the base snapshot.
+     */
+    public int toBaseIndex(final int index) {
+        if (permutation == null) {
+            return index;
+        }
+        return permutation[index];
+    }
+
+    /**
+     * Converts a position in the base snapshot to the position of the same song in this one.
+     *
+     * @param baseIndex The position in the base snapshot.
+     * @return The position in this snapshot.
+     */
+    public int fromBaseIndex(final int baseIndex) {
+        if (permutation == null) {
+            return baseIndex;
+        }
+        if (inversePermutation == null) {
+            inversePermutation = new int[permutation.length];
+            for (int i = 0; i < permutation.length; ++i) {
+                inversePermutation[permutation[i]] = i;
+            }
+        }
+        return inversePermutation[baseIndex];
+    }
+
+    /**
+     * Finds the first occurrence of a song.
+     *
+     * @param song The song to be found.
+     * @return The position of the first occurrence of the song, or -1 if it is missing.
+     */
+    public int indexOf(final Song song) {
+        for (int i = 0; i < songs.size(); ++i) {
+            if (getSong(i) == song) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a song that was at the given position of the base list before the list changed.
+     * Removing songs only moves the following songs towards the start of the list,
+     * and adding songs at the end doesn't move them, so the song is searched
+     * backwards from its old position first.
+     *
+     * @param song The song to be found.
+     * @param oldBaseIndex The position of the song in an older version of the base list.
+     * @return The position of the first occurrence of the song, or -1 if it is missing.
+     */
+    public int indexOfNear(final Song song, final int oldBaseIndex) {
+        for (int i = Math.min(oldBaseIndex, songs.size() - 1); i >= 0; --i) {
+            if (songs.get(i) == song) {
+                return getFirstPosition(fromBaseIndex(i));
+            }
+        }
+        for (int i = oldBaseIndex + 1; i < songs.size(); ++i) {
+            if (songs.get(i) == song) {
+                return getFirstPosition(fromBaseIndex(i));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the position of the first occurrence of the song at the given position,
+     * which is where searching for the song in the list finds it.
+     *
+     * @param index The position of the song.
+     * @return The position of the first occurrence of the song.
+     */
+    public int getFirstPosition(final int index) {
+        if (!mayRepeat) {
+            return index;
+        }
+        if (firstPositions == null) {
+            firstPositions = new int[songs.size()];
+            Hashtable<Song, Integer> positions = new Hashtable<>();
+            for (int i = 0; i < songs.size(); ++i) {
+                Song song = getSong(i);
+                positions.putIfAbsent(song, i);
+                firstPositions[i] = positions.get(song);
+            }
+        }
+        return firstPositions[index];
+    }
+
+    /**
+     * Retrieves the total duration of the songs.
+     *
+     * @return The duration of a full pass through the songs.
+     */
+    public long getTotalDuration() {
+        // the total doesn't depend on the order of the songs
+        long[] baseSums = base.getPrefixSums();
+        return baseSums[baseSums.length - 1];
+    }
+
+    /**
+     * Retrieves the total duration of the songs before the given position.
+     *
+     * @param index The position of a song, or the number of songs.
+     * @return The time at which the song at the given position starts playing.
+     */
+    public long getDurationBefore(final int index) {
+        return getPrefixSums()[index];
+    }
+
+    /**
+     * Finds the song playing at the given time from the start of the first song.
+     *
+     * @param time The time, smaller than the total duration.
+     * @return The position of the song that hasn't ended at that time.
+     */
+    public int findSongAt(final long time) {
+        long[] sums = getPrefixSums();
+        int low = 0;
+        int high = sums.length - 2;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sums[mid + 1] > time) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private long[] getPrefixSums() {
+        if (prefixSums == null) {
+            prefixSums = new long[songs.size() + 1];
+            for (int i = 0; i < songs.size(); ++i) {
+                prefixSums[i + 1] = prefixSums[i] + getSong(i).getDuration();
+            }
+        }
+        return prefixSums;
+    }
+}
@@ -3,17 +3,18 @@ package audioentities.audiocollections.audioCollectionsStates;
 import audioentities.audiocollections.Podcast;
 import audioentities.audiofiles.Episode;
 
-import java.util.ArrayList;
-
 public final class PodcastState {
     private final Podcast podcast;
     private Episode currentEpisode;
+    // the position of the current episode in the podcast
+    private int currentEpisodeIndex;
     private Integer episodeRemainingTime;
 
     public PodcastState(final Podcast podcast,
                         final Episode episode, final Integer remainingTime) {
         this.podcast = podcast;
         currentEpisode = episode;
+        currentEpisodeIndex = podcast.getEpisodes().indexOf(episode);
         episodeRemainingTime = remainingTime;
     }
 
@@ -25,8 +26,18 @@ public final class PodcastState {
         return currentEpisode;
     }
 
-    public void setCurrentEpisode(final Episode currentEpisode) {
-        this.currentEpisode = currentEpisode;
+    public int getCurrentEpisodeIndex() {
+        return currentEpisodeIndex;
+    }
+
+    /**
+     * Sets the current episode to the episode at a position in the podcast.
+     *
+     * @param episodeIndex The position of the episode.
+     */
+    public void setCurrentEpisode(final int episodeIndex) {
+        currentEpisodeIndex = episodeIndex;
+        currentEpisode = podcast.getEpisodes().get(episodeIndex);
     }
 
     public Integer getEpisodeRemainingTime() {
@@ -38,26 +49,21 @@ public final class PodcastState {
     }
 
     /**
-     * Sets default states for a list of podcasts based on their first episodes.
+     * Creates the default state of a podcast, at the beginning of its first episode.
      *
-     * @param podcasts The list of podcasts for which default states need to be generated.
-     * @return An ArrayList of PodcastState objects containing default states for each podcast.
+     * @param podcast The podcast for which the default state is created.
+     * @return The default state of the podcast.
      */
-    public static ArrayList<PodcastState> setDefaultPodcastsStates(
-            final ArrayList<Podcast> podcasts) {
-        ArrayList<PodcastState> podcastsStates = new ArrayList<PodcastState>();
-        for (Podcast podcast : podcasts) {
-            Episode firstEpisode;
-            Integer firstEpisodeDuration;
-            if (podcast.getEpisodes().isEmpty()) {
-                firstEpisode = null;
-                firstEpisodeDuration = 0;
-            } else {
-                firstEpisode = podcast.getEpisodes().get(0);
-                firstEpisodeDuration = firstEpisode.getDuration();
-            }
-            podcastsStates.add(new PodcastState(podcast, firstEpisode, firstEpisodeDuration));
+    public static PodcastState createDefaultPodcastState(final Podcast podcast) {
+        Episode firstEpisode;
+        Integer firstEpisodeDuration;
+        if (podcast.getEpisodes().isEmpty()) {
+            firstEpisode = null;
+            firstEpisodeDuration = 0;
+        } else {
+            firstEpisode = podcast.getEpisodes().get(0);
+            firstEpisodeDuration = firstEpisode.getDuration();
         }
-        return podcastsStates;
+        return new PodcastState(podcast, firstEpisode, firstEpisodeDuration);
     }
 }
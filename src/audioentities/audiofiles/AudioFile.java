@@ -3,9 +3,9 @@ package audioentities.audiofiles;
 import audioentities.AudioEntity;
 
 public abstract class AudioFile extends AudioEntity {
-    protected Integer duration;
+    protected int duration;
 
-    public AudioFile(final String name, final Integer duration) {
+    public AudioFile(final String name, final int duration) {
         super(name);
         this.duration = duration;
     }
@@ -14,7 +14,7 @@ public abstract class AudioFile extends AudioEntity {
      *
      * @return
      */
-    public Integer getDuration() {
+    public int getDuration() {
         return duration;
     }
 
@@ -22,7 +22,7 @@ public abstract class AudioFile extends AudioEntity {
      *
      * @param duration
      */
-    public void setDuration(final Integer duration) {
+    public void setDuration(final int duration) {
         this.duration = duration;
     }
 }
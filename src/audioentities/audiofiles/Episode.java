@@ -1,14 +1,18 @@
 package audioentities.audiofiles;
 
+import audioentities.audiocollections.Podcast;
 import audiovisitors.AudioVisitor;
 import fileio.input.EpisodeInput;
 
 public final class Episode extends AudioFile {
     private final String description;
+    // the podcast the episode belongs to
+    private Podcast owningPodcast;
 
     public Episode(final EpisodeInput episode) {
         super(episode.getName(), episode.getDuration());
         description = episode.getDescription();
+        owningPodcast = null;
     }
 
     @Override
@@ -18,4 +22,12 @@ public final class Episode extends AudioFile {
     public String getDescription() {
         return description;
     }
+
+    public Podcast getOwningPodcast() {
+        return owningPodcast;
+    }
+
+    public void setOwningPodcast(final Podcast owningPodcast) {
+        this.owningPodcast = owningPodcast;
+    }
 }
@@ -1,44 +1,99 @@
 package audioentities.audiofiles;
 
+import audioentities.audiocollections.Album;
 import audiovisitors.AudioVisitor;
 import fileio.input.SongInput;
+import userentities.user.searchbar.index.SearchIndex;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public final class Song extends AudioFile {
+    // album, tags, genre and artist are interned, since they repeat across the catalog
     private final String album;
-    private final ArrayList<String> tags;
-    private final String lyrics;
+    private final List<String> tags;
     private final String genre;
-    private final Integer releaseYear;
+    private final int releaseYear;
     private final String artist;
-    private Integer likeCount;
+    // normalized fields, used by the search
+    // only the lowercase lyrics are kept, since nothing else reads them
+    private final String albumKey;
+    private final String lyricsKey;
+    private final String genreKey;
+    private final String artistKey;
+    private int likeCount;
+    // the number of players playing the song and of loaded playlists containing it
+    private int activePlayers;
+    private int activePlaylists;
+    // set when a player starts the song and cleared when a player stops it,
+    // read by the check for deleting its artist
     private boolean isPlayed;
+    // the album the song belongs to, null if it isn't part of an artist's album
+    private Album owningAlbum;
 
     public Song(final SongInput song) {
         super(song.getName(), song.getDuration());
-        album = song.getAlbum();
-        tags = song.getTags();
-        lyrics = song.getLyrics();
-        genre = song.getGenre();
+        album = song.getAlbum() == null ? null : song.getAlbum().intern();
+        tags = internTags(song.getTags());
+        genre = song.getGenre() == null ? null : song.getGenre().intern();
         releaseYear = song.getReleaseYear();
-        artist = song.getArtist();
+        artist = song.getArtist() == null ? null : song.getArtist().intern();
+        albumKey = album == null ? null : album.toLowerCase().intern();
+        lyricsKey = song.getLyrics() == null ? null : song.getLyrics().toLowerCase();
+        genreKey = genre == null ? null : SearchIndex.foldCase(genre).intern();
+        artistKey = artist == null ? null : SearchIndex.foldCase(artist).intern();
         likeCount = 0;
+        activePlayers = 0;
+        activePlaylists = 0;
         isPlayed = false;
+        owningAlbum = null;
+    }
+
+    /**
+     * Creates a song with the details of another song, but none of its likes,
+     * playlists or players, as if it was just read from the input.
+     *
+     * @param template The song whose details are copied.
+     */
+    public Song(final Song template) {
+        super(template.getName(), template.getDuration());
+        album = template.album;
+        tags = template.tags;
+        genre = template.genre;
+        releaseYear = template.releaseYear;
+        artist = template.artist;
+        albumKey = template.albumKey;
+        lyricsKey = template.lyricsKey;
+        genreKey = template.genreKey;
+        artistKey = template.artistKey;
+        likeCount = 0;
+        activePlayers = 0;
+        activePlaylists = 0;
+        isPlayed = false;
+        owningAlbum = null;
+    }
+
+    private static List<String> internTags(final List<String> inputTags) {
+        if (inputTags == null) {
+            return Collections.emptyList();
+        }
+        String[] internedTags = new String[inputTags.size()];
+        for (int i = 0; i < internedTags.length; ++i) {
+            String tag = inputTags.get(i);
+            internedTags[i] = tag == null ? null : tag.intern();
+        }
+        return Collections.unmodifiableList(Arrays.asList(internedTags));
     }
 
     public String getAlbum() {
         return album;
     }
 
-    public ArrayList<String> getTags() {
+    public List<String> getTags() {
         return tags;
     }
 
-    public String getLyrics() {
-        return lyrics;
-    }
-
     public String getGenre() {
         return genre;
     }
@@ -50,14 +105,62 @@ public final class Song extends AudioFile {
         return artist;
     }
 
-    public Integer getLikeCount() {
+    public String getAlbumKey() {
+        return albumKey;
+    }
+
+    public String getLyricsKey() {
+        return lyricsKey;
+    }
+
+    public String getGenreKey() {
+        return genreKey;
+    }
+
+    public String getArtistKey() {
+        return artistKey;
+    }
+
+    public int getLikeCount() {
         return likeCount;
     }
 
-    public void setLikeCount(final Integer likeCount) {
+    public void setLikeCount(final int likeCount) {
         this.likeCount = likeCount;
     }
 
+    /**
+     * Checks if at least one player is playing the song,
+     * on its own or as part of a playlist or album.
+     *
+     * @return true if a player is playing the song, false otherwise.
+     */
+    public boolean hasActivePlayers() {
+        return activePlayers > 0;
+    }
+
+    /**
+     * Changes the number of players that are playing the song.
+     *
+     * @param delta The change of the number of players.
+     */
+    public void changeActivePlayers(final int delta) {
+        activePlayers += delta;
+    }
+
+    public int getActivePlaylists() {
+        return activePlaylists;
+    }
+
+    /**
+     * Changes the number of playlists containing the song that are loaded in a player.
+     *
+     * @param delta The change of the number of playlists.
+     */
+    public void changeActivePlaylists(final int delta) {
+        activePlaylists += delta;
+    }
+
     public boolean isPlayed() {
         return isPlayed;
     }
@@ -66,6 +169,14 @@ public final class Song extends AudioFile {
         isPlayed = played;
     }
 
+    public Album getOwningAlbum() {
+        return owningAlbum;
+    }
+
+    public void setOwningAlbum(final Album owningAlbum) {
+        this.owningAlbum = owningAlbum;
+    }
+
     @Override
     public void acceptAudioVisitor(final AudioVisitor v) {
         v.visit(this);
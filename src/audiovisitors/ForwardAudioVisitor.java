@@ -28,17 +28,16 @@ public final class ForwardAudioVisitor implements AudioVisitor {
     public void visit(final Podcast podcast) {
         message =  "Skipped forward successfully.";
         if (player.getRemainedTime() <= Player.MIN_SKIP) {
-            Episode currEpisode = player.getPlayingPodcastState(podcast).getCurrentEpisode();
-            int currEpisodeIndex = podcast.getEpisodes().indexOf(currEpisode);
-            Episode nextEpisode;
+            int currEpisodeIndex =
+                    player.getPlayingPodcastState(podcast).getCurrentEpisodeIndex();
+            int nextEpisodeIndex;
             // if last episode, set the first one
             if (currEpisodeIndex == podcast.getEpisodes().size() - 1) {
-                if (player.getRepeat() > 0) {
-                    nextEpisode = podcast.getEpisodes().get(0);
-                } else {
-                    nextEpisode = podcast.getEpisodes().get(0);
+                nextEpisodeIndex = 0;
+                if (player.getRepeat() == 0) {
+                    Episode nextEpisode = podcast.getEpisodes().get(nextEpisodeIndex);
                     player.resetPlayer();
-                    player.getPlayingPodcastState(podcast).setCurrentEpisode(nextEpisode);
+                    player.getPlayingPodcastState(podcast).setCurrentEpisode(nextEpisodeIndex);
                     player.getPlayingPodcastState(podcast)
                             .setEpisodeRemainingTime(nextEpisode.getDuration());
                     return;
@@ -47,10 +46,11 @@ public final class ForwardAudioVisitor implements AudioVisitor {
                     player.setRepeat(0);
                 }
             } else {
-                nextEpisode = podcast.getEpisodes().get(currEpisodeIndex + 1);
+                nextEpisodeIndex = currEpisodeIndex + 1;
             }
 
-            player.getPlayingPodcastState(podcast).setCurrentEpisode(nextEpisode);
+            Episode nextEpisode = podcast.getEpisodes().get(nextEpisodeIndex);
+            player.getPlayingPodcastState(podcast).setCurrentEpisode(nextEpisodeIndex);
             player.getPlayingPodcastState(podcast)
                     .setEpisodeRemainingTime(nextEpisode.getDuration());
             player.setRemainedTime(nextEpisode.getDuration());
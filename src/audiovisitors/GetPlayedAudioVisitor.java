@@ -0,0 +1,57 @@
+package audiovisitors;
+
+import audioentities.audiocollections.Album;
+import audioentities.audiocollections.AudioCollection;
+import audioentities.audiocollections.Playlist;
+import audioentities.audiocollections.Podcast;
+import audioentities.audiofiles.Song;
+import userentities.user.player.Player;
+
+public final class GetPlayedAudioVisitor implements AudioVisitor {
+    private final Player player;
+    private AudioCollection playedCollection;
+    private Song playedSong;
+
+    public GetPlayedAudioVisitor(final Player player) {
+        this.player = player;
+        playedCollection = null;
+        playedSong = null;
+    }
+
+    public AudioCollection getPlayedCollection() {
+        return playedCollection;
+    }
+
+    public Song getPlayedSong() {
+        return playedSong;
+    }
+
+    @Override
+    public void visit(final Song song) {
+        playedSong = song;
+    }
+
+    @Override
+    public void visit(final Podcast podcast) {
+        playedCollection = podcast;
+    }
+
+    @Override
+    public void visit(final Playlist playlist) {
+        // an empty collection can't be loaded, so nothing is played
+        if (playlist.getSongs().isEmpty()) {
+            return;
+        }
+        playedCollection = playlist;
+        playedSong = player.getPlaylistState();
+    }
+
+    @Override
+    public void visit(final Album album) {
+        if (album.getSongs().isEmpty()) {
+            return;
+        }
+        playedCollection = album;
+        playedSong = player.getAlbumState();
+    }
+}
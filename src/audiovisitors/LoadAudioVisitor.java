@@ -42,14 +42,13 @@ public final class LoadAudioVisitor implements AudioVisitor {
         player.getAds().clear();
 
         player.setPodcastPlaying(true);
-        // search to find the user's personal podcast state
-        for (PodcastState podcastState : player.getPodcastsStates()) {
-            // get the current state on where the user was in the podcast
-            if (podcastState.getPodcast() == podcast) {
-                player.setRemainedTime(podcastState.getEpisodeRemainingTime());
-                Episode currentEpisode = podcastState.getCurrentEpisode();
-                user.getWrapped().updateEpisodeListens(currentEpisode);
-            }
+        // get the current state on where the user was in the podcast,
+        // unless it was removed after it was selected
+        PodcastState podcastState = player.getPlayingPodcastState(podcast);
+        if (podcastState != null) {
+            player.setRemainedTime(podcastState.getEpisodeRemainingTime());
+            Episode currentEpisode = podcastState.getCurrentEpisode();
+            user.getWrapped().updateEpisodeListens(currentEpisode);
         }
         podcast.setPlayed(true);
     }
@@ -69,7 +68,7 @@ public final class LoadAudioVisitor implements AudioVisitor {
         firstSongInPlaylist.setPlayed(true);
         user.getWrapped().updateSongListens(firstSongInPlaylist);
         player.setRemainedTime(firstSongInPlaylist.getDuration());
-        player.setPlaylistState(firstSongInPlaylist);
+        player.setPlaylistState(playlist.getSongsOrder(), 0);
     }
 
     @Override
@@ -87,6 +86,6 @@ public final class LoadAudioVisitor implements AudioVisitor {
         firstSongInAlbum.setPlayed(true);
         user.getWrapped().updateSongListens(firstSongInAlbum);
         player.setRemainedTime(firstSongInAlbum.getDuration());
-        player.setAlbumState(firstSongInAlbum);
+        player.setAlbumState(album.getSongsOrder(), 0);
     }
 }
@@ -3,17 +3,21 @@ package audiovisitors;
 import audioentities.audiocollections.Album;
 import audioentities.audiocollections.Playlist;
 import audioentities.audiocollections.Podcast;
+import audioentities.audiocollections.SongOrder;
 import audioentities.audiofiles.Song;
 import database.Database;
 import userentities.user.player.Player;
 
 public final class NextAudioVisitor implements AudioVisitor {
     private final Player player;
+    private final Database database;
     private final Integer timestamp;
     private String message;
 
-    public NextAudioVisitor(final Player player, final  Integer timestamp) {
+    public NextAudioVisitor(final Player player, final Database database,
+                            final Integer timestamp) {
         this.player = player;
+        this.database = database;
         this.timestamp = timestamp;
     }
 
@@ -23,13 +27,13 @@ public final class NextAudioVisitor implements AudioVisitor {
 
     @Override
     public void visit(final Song song) {
-        Database database = Database.getDatabase();
+        SongOrder songsOrder = database.getSongsOrder();
 
-        int currSongIndex = database.getSongs().indexOf(song);
+        int currSongIndex = player.getCurrentSongPosition(songsOrder);
         // if last song in database
         if (currSongIndex == database.getSongs().size() - 1) {
             if (player.getRepeat() > 0) {
-                player.setCurrentPlaying(database.getSongs().get(0));
+                player.setCurrentPlaying(songsOrder, 0);
                 player.setRemainedTime(database.getSongs().get(0).getDuration());
             } else {
                 player.resetPlayer();
@@ -39,7 +43,7 @@ public final class NextAudioVisitor implements AudioVisitor {
                 player.setRepeat(0);
             }
         } else {
-            player.setCurrentPlaying(database.getSongs().get(currSongIndex + 1));
+            player.setCurrentPlaying(songsOrder, currSongIndex + 1);
             player.setRemainedTime(database.getSongs().get(currSongIndex + 1).getDuration());
         }
 
@@ -3,19 +3,20 @@ package audiovisitors;
 import audioentities.audiocollections.Album;
 import audioentities.audiocollections.Playlist;
 import audioentities.audiocollections.Podcast;
+import audioentities.audiocollections.SongOrder;
 import audioentities.audiofiles.Episode;
 import audioentities.audiofiles.Song;
 import database.Database;
 import userentities.user.player.Player;
 
-import java.util.ArrayList;
-
 public final class PrevAudioVisitor implements AudioVisitor {
     private final Player player;
+    private final Database database;
     private String message;
 
-    public PrevAudioVisitor(final Player player) {
+    public PrevAudioVisitor(final Player player, final Database database) {
         this.player = player;
+        this.database = database;
     }
 
     public String getMessage() {
@@ -24,20 +25,19 @@ public final class PrevAudioVisitor implements AudioVisitor {
 
     @Override
     public void visit(final Song song) {
-        Database database = Database.getDatabase();
-
         // if at least a second passed, get to the beginning of file
         if (song.getDuration() - player.getRemainedTime() >= 1) {
             player.setRemainedTime(song.getDuration());
         } else {
-            int currSongIndex = database.getSongs().indexOf(song);
+            SongOrder songsOrder = database.getSongsOrder();
+            int currSongIndex = player.getCurrentSongPosition(songsOrder);
             // if first in database, get to the beginning of file
             if (currSongIndex == 0) {
                 player.setRemainedTime(song.getDuration());
             } else {
-                Song prevSong = database.getSongs().get(currSongIndex - 1);
+                Song prevSong = songsOrder.getSong(currSongIndex - 1);
                 player.setRemainedTime(prevSong.getDuration());
-                player.setCurrentPlaying(prevSong);
+                player.setCurrentPlaying(songsOrder, currSongIndex - 1);
             }
         }
 
@@ -59,7 +59,8 @@ public final class PrevAudioVisitor implements AudioVisitor {
             player.getPlayingPodcastState(podcast)
                     .setEpisodeRemainingTime(currEpisode.getDuration());
         } else {
-            int currEpisodeIndex = podcast.getEpisodes().indexOf(currEpisode);
+            int currEpisodeIndex =
+                    player.getPlayingPodcastState(podcast).getCurrentEpisodeIndex();
             // if first in database, get to the beginning of file
             if (currEpisodeIndex == 0) {
                 player.setRemainedTime(currEpisode.getDuration());
@@ -69,7 +70,7 @@ public final class PrevAudioVisitor implements AudioVisitor {
                 Episode prevEpisode = podcast.getEpisodes().get(currEpisodeIndex - 1);
                 player.setRemainedTime(currEpisode.getDuration());
                 player.getPlayingPodcastState(podcast)
-                        .setCurrentEpisode(prevEpisode);
+                        .setCurrentEpisode(currEpisodeIndex - 1);
                 player.getPlayingPodcastState(podcast)
                         .setEpisodeRemainingTime(prevEpisode.getDuration());
             }
@@ -91,21 +92,17 @@ public final class PrevAudioVisitor implements AudioVisitor {
         if (currSong.getDuration() - player.getRemainedTime() >= 1) {
             player.setRemainedTime(currSong.getDuration());
         } else {
-            ArrayList<Song> songs;
-            if (player.getShuffle()) {
-                songs = playlist.getShuffledSongs();
-            } else {
-                songs = playlist.getSongs();
-            }
+            SongOrder songsOrder =
+                    player.getPlayingOrder(playlist, playlist.getSongsOrder());
 
-            int currSongIndex = songs.indexOf(currSong);
+            int currSongIndex = player.getPlaylistPosition(songsOrder);
             // if first in database, get to the beginning of file
             if (currSongIndex == 0) {
                 player.setRemainedTime(currSong.getDuration());
             } else {
-                Song prevSong = songs.get(currSongIndex - 1);
+                Song prevSong = songsOrder.getSong(currSongIndex - 1);
                 player.setRemainedTime(prevSong.getDuration());
-                player.setPlaylistState(prevSong);
+                player.setPlaylistState(songsOrder, currSongIndex - 1);
             }
         }
 
@@ -123,21 +120,17 @@ public final class PrevAudioVisitor implements AudioVisitor {
         if (currSong.getDuration() - player.getRemainedTime() >= 1) {
             player.setRemainedTime(currSong.getDuration());
         } else {
-            ArrayList<Song> songs;
-            if (player.getShuffle()) {
-                songs = album.getShuffledSongs();
-            } else {
-                songs = album.getSongs();
-            }
+            SongOrder songsOrder =
+                    player.getPlayingOrder(album, album.getSongsOrder());
 
-            int currSongIndex = songs.indexOf(currSong);
+            int currSongIndex = player.getAlbumPosition(songsOrder);
             // if first in database, get to the beginning of file
             if (currSongIndex == 0) {
                 player.setRemainedTime(currSong.getDuration());
             } else {
-                Song prevSong = songs.get(currSongIndex - 1);
+                Song prevSong = songsOrder.getSong(currSongIndex - 1);
                 player.setRemainedTime(prevSong.getDuration());
-                player.setAlbumState(prevSong);
+                player.setAlbumState(songsOrder, currSongIndex - 1);
             }
         }
 
@@ -6,10 +6,6 @@ import audioentities.audiocollections.Podcast;
 import audioentities.audiofiles.Song;
 import userentities.user.player.Player;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Random;
-
 public final class ShuffleAudioVisitor implements AudioVisitor {
     private final Player player;
     private final Integer seed;
@@ -37,15 +33,12 @@ public final class ShuffleAudioVisitor implements AudioVisitor {
 
     @Override
     public void visit(final Playlist playlist) {
-        player.setShuffle(!player.getShuffle());
-
-        if (player.getShuffle()) {
-            playlist.setShuffledSongs(new ArrayList<Song>(playlist.getSongs()));
-            Collections.shuffle(playlist.getShuffledSongs(), new Random(seed));
+        if (!player.getShuffle()) {
+            player.shuffleSongs(playlist, playlist.getSongsOrder(), seed);
 
             message =  "Shuffle function activated successfully.";
         } else {
-            playlist.setShuffledSongs(null);
+            player.setShuffle(false);
 
             message =  "Shuffle function deactivated successfully.";
         }
@@ -53,15 +46,12 @@ public final class ShuffleAudioVisitor implements AudioVisitor {
 
     @Override
     public void visit(final Album album) {
-        player.setShuffle(!player.getShuffle());
-
-        if (player.getShuffle()) {
-            album.setShuffledSongs(new ArrayList<Song>(album.getSongs()));
-            Collections.shuffle(album.getShuffledSongs(), new Random(seed));
+        if (!player.getShuffle()) {
+            player.shuffleSongs(album, album.getSongsOrder(), seed);
 
             message =  "Shuffle function activated successfully.";
         } else {
-            album.setShuffledSongs(null);
+            player.setShuffle(false);
 
             message =  "Shuffle function deactivated successfully.";
         }
@@ -3,16 +3,16 @@ package audiovisitors;
 import audioentities.audiocollections.Album;
 import audioentities.audiocollections.Playlist;
 import audioentities.audiocollections.Podcast;
+import audioentities.audiocollections.SongOrder;
 import audioentities.audiofiles.Episode;
 import audioentities.audiofiles.Song;
 import userentities.user.User;
 import userentities.user.player.Player;
 
-import java.util.ArrayList;
 
 public final class UpdateAudioVisitor implements AudioVisitor {
     // constants
-    private static final Integer AD_DURATION = 10;
+    private static final Integer AD_DURATION = Player.AD_DURATION;
     private final User user;
     private final Player player;
     private final Integer timestamp;
@@ -65,9 +65,7 @@ public final class UpdateAudioVisitor implements AudioVisitor {
                 Integer songRepeatTimes = Math.floorDiv(timestampDiff, currSongDuration);
                 timestampDiff -= (songRepeatTimes * currSongDuration);
 
-                for (int i = 0; i < songRepeatTimes; ++i) {
-                    user.getWrapped().updateSongListens(song);
-                }
+                user.getWrapped().updateSongListens(song, songRepeatTimes);
                 if (timestampDiff != 0) {
                     user.getWrapped().updateSongListens(song);
                 }
@@ -83,12 +81,13 @@ public final class UpdateAudioVisitor implements AudioVisitor {
             return;
         }
         Episode currEpisode = player.getPlayingPodcastState(podcast).getCurrentEpisode();
-        int currEpisodeIndex = podcast.getEpisodes().indexOf(currEpisode);
+        int currEpisodeIndex = player.getPlayingPodcastState(podcast).getCurrentEpisodeIndex();
 
         boolean isEnded = true;
 
         for (int i = currEpisodeIndex + 1; i < podcast.getEpisodes().size(); ++i) {
             currEpisode = podcast.getEpisodes().get(i);
+            currEpisodeIndex = i;
 
             user.getWrapped().updateEpisodeListens(currEpisode);
 
@@ -103,13 +102,13 @@ public final class UpdateAudioVisitor implements AudioVisitor {
         // if the episodes are ended
         if (isEnded) {
             Episode firstEpisode = podcast.getEpisodes().get(0);
-            player.getPlayingPodcastState(podcast).setCurrentEpisode(firstEpisode);
+            player.getPlayingPodcastState(podcast).setCurrentEpisode(0);
             player.getPlayingPodcastState(podcast)
                     .setEpisodeRemainingTime(firstEpisode.getDuration());
             player.resetPlayer();
             podcast.setPlayed(false);
         } else {
-            player.getPlayingPodcastState(podcast).setCurrentEpisode(currEpisode);
+            player.getPlayingPodcastState(podcast).setCurrentEpisode(currEpisodeIndex);
             player.getPlayingPodcastState(podcast)
                     .setEpisodeRemainingTime(player.getRemainedTime());
         }
@@ -170,9 +169,7 @@ public final class UpdateAudioVisitor implements AudioVisitor {
                 Integer episodeRepeatTimes = Math.floorDiv(timestampDiff, currEpisodeDuration);
                 timestampDiff -= (episodeRepeatTimes * currEpisodeDuration);
 
-                for (int i = 0; i < episodeRepeatTimes; ++i) {
-                    user.getWrapped().updateEpisodeListens(currEpisode);
-                }
+                user.getWrapped().updateEpisodeListens(currEpisode, episodeRepeatTimes);
                 if (timestampDiff != 0) {
                     user.getWrapped().updateEpisodeListens(currEpisode);
                 }
@@ -185,18 +182,58 @@ public final class UpdateAudioVisitor implements AudioVisitor {
         }
     }
 
-    private void iteratePlaylistSongs(final Playlist playlist, final ArrayList<Song> playlistSongs,
+    /**
+     * Checks if the passes of repeat all can be played at once, without walking the songs.
+     * This is not the case while there are ads to be inserted between the songs.
+     */
+    private boolean canSkipPasses(final SongOrder songsOrder) {
+        return (player.getAds().isEmpty() || user.isPremium())
+                && songsOrder.getTotalDuration() > 0;
+    }
+
+    /**
+     * Plays the songs under repeat all, starting from the first one.
+     * The full passes through the songs are skipped at once,
+     * and the song playing at the current timestamp is found by binary search.
+     *
+     * @return The position of the song playing at the current timestamp.
+     */
+    private int playRepeatedPasses(final SongOrder songsOrder, final int timestampDiff) {
+        long totalDuration = songsOrder.getTotalDuration();
+        int passes = (int) ((timestampDiff - player.getRemainedTime()) / totalDuration);
+        for (int i = 0; i < songsOrder.size(); ++i) {
+            user.getWrapped().updateSongListens(songsOrder.getSong(i), passes);
+        }
+
+        long playedTime = player.getRemainedTime() + passes * totalDuration;
+        int songIndex = songsOrder.findSongAt(timestampDiff - playedTime);
+        for (int i = 0; i <= songIndex; ++i) {
+            user.getWrapped().updateSongListens(songsOrder.getSong(i));
+        }
+
+        player.setRemainedTime((int) (playedTime
+                + songsOrder.getDurationBefore(songIndex + 1) - timestampDiff));
+        return songIndex;
+    }
+
+    private void iteratePlaylistSongs(final Playlist playlist, final SongOrder songsOrder,
                                       final int timestampDiff) {
         boolean isFinished = false;
         int isFirstLoop = 1;
         while (!isFinished) {
-            Song currSong = player.getPlaylistState();
-            currSong.setPlayed(false);
-            int currSongIndex = playlistSongs.indexOf(currSong);
+            int currSongIndex = player.getPlaylistPosition(songsOrder);
+            player.getPlaylistState().setPlayed(false);
+
+            // the next passes of repeat all start from the first song
+            if (isFirstLoop == 0 && canSkipPasses(songsOrder)) {
+                player.setPlaylistState(songsOrder, playRepeatedPasses(songsOrder, timestampDiff));
+                player.getPlaylistState().setPlayed(true);
+                break;
+            }
 
             boolean isEnded = true;
 
-            for (int i = currSongIndex + isFirstLoop; i < playlistSongs.size(); ++i) {
+            for (int i = currSongIndex + isFirstLoop; i < songsOrder.size(); ++i) {
                 // check ads
                 if (!player.getAds().isEmpty() && !user.isPremium()) {
                     int realDiff = timestampDiff - player.getRemainedTime();
@@ -207,8 +244,8 @@ public final class UpdateAudioVisitor implements AudioVisitor {
 
                         user.removeAd();
 
-                        player.setRemainedTime(playlistSongs.get(i).getDuration());
-                        player.setPlaylistState(playlistSongs.get(i));
+                        player.setRemainedTime(songsOrder.getSong(i).getDuration());
+                        player.setPlaylistState(songsOrder, i);
                         return;
                     }
 
@@ -217,7 +254,8 @@ public final class UpdateAudioVisitor implements AudioVisitor {
                     player.setRemainedTime(player.getRemainedTime() + AD_DURATION);
                 }
 
-                currSong = playlistSongs.get(i);
+                Song currSong = songsOrder.getSong(i);
+                currSongIndex = i;
 
                 user.getWrapped().updateSongListens(currSong);
 
@@ -240,8 +278,8 @@ public final class UpdateAudioVisitor implements AudioVisitor {
             // if the playlist is ended
             if (isEnded) {
                 if (player.getRepeat() == 1) {
-                    player.setPlaylistState(playlistSongs.get(0));
-                    playlistSongs.get(0).setPlayed(true);
+                    player.setPlaylistState(songsOrder, 0);
+                    player.getPlaylistState().setPlayed(true);
                 } else {
                     player.setPlaylistState(null);
                     playlist.setPlayed(false);
@@ -254,8 +292,8 @@ public final class UpdateAudioVisitor implements AudioVisitor {
                     player.resetPlayer();
                 }
             } else {
-                player.setPlaylistState(currSong);
-                currSong.setPlayed(true);
+                player.setPlaylistState(songsOrder, currSongIndex);
+                player.getPlaylistState().setPlayed(true);
                 if (player.getRepeat() == 1) {
                     isFinished = true;
                 }
@@ -266,14 +304,9 @@ public final class UpdateAudioVisitor implements AudioVisitor {
     }
 
     private void updatePlaylist(final Playlist playlist) {
-        ArrayList<Song> playlistSongs;
-        if (player.getShuffle()) {
-            playlistSongs = playlist.getShuffledSongs();
-        } else {
-            playlistSongs = playlist.getSongs();
-        }
+        SongOrder songsOrder = player.getPlayingOrder(playlist, playlist.getSongsOrder());
 
-        if (playlistSongs.isEmpty()) {
+        if (songsOrder.size() == 0) {
             player.setPrevCommandTimestamp(timestamp);
             return;
         }
@@ -302,10 +335,10 @@ public final class UpdateAudioVisitor implements AudioVisitor {
             // if the song has finished
             // and no repeat, reach the next song
             if (player.getRepeat() == 0) {
-                iteratePlaylistSongs(playlist, playlistSongs, timestampDiff);
+                iteratePlaylistSongs(playlist, songsOrder, timestampDiff);
 
             } else if (player.getRepeat() == 1) { // repeat all
-                iteratePlaylistSongs(playlist, playlistSongs, timestampDiff);
+                iteratePlaylistSongs(playlist, songsOrder, timestampDiff);
             } else { // repeat current song
                 Song currSong = player.getPlaylistState();
                 Integer currSongDuration = player.getPlaylistState().getDuration();
@@ -313,9 +346,7 @@ public final class UpdateAudioVisitor implements AudioVisitor {
                 Integer songRepeatTimes = Math.floorDiv(timestampDiff, currSongDuration);
                 timestampDiff -= (songRepeatTimes * currSongDuration);
 
-                for (int i = 0; i < songRepeatTimes; ++i) {
-                    user.getWrapped().updateSongListens(currSong);
-                }
+                user.getWrapped().updateSongListens(currSong, songRepeatTimes);
                 if (timestampDiff != 0) {
                     user.getWrapped().updateSongListens(currSong);
                 }
@@ -326,18 +357,24 @@ public final class UpdateAudioVisitor implements AudioVisitor {
         }
     }
 
-    private void iterateAlbumSongs(final Album album, final ArrayList<Song> albumSongs,
+    private void iterateAlbumSongs(final Album album, final SongOrder songsOrder,
                                       final int timestampDiff) {
         boolean isFinished = false;
         int isFirstLoop = 1;
         while (!isFinished) {
-            Song currSong = player.getAlbumState();
-            currSong.setPlayed(false);
-            int currSongIndex = albumSongs.indexOf(currSong);
+            int currSongIndex = player.getAlbumPosition(songsOrder);
+            player.getAlbumState().setPlayed(false);
+
+            // the next passes of repeat all start from the first song
+            if (isFirstLoop == 0 && canSkipPasses(songsOrder)) {
+                player.setAlbumState(songsOrder, playRepeatedPasses(songsOrder, timestampDiff));
+                player.getAlbumState().setPlayed(true);
+                break;
+            }
 
             boolean isEnded = true;
 
-            for (int i = currSongIndex + isFirstLoop; i < albumSongs.size(); ++i) {
+            for (int i = currSongIndex + isFirstLoop; i < songsOrder.size(); ++i) {
                 // check ads
                 if (!player.getAds().isEmpty() && !user.isPremium()) {
                     int realDiff = timestampDiff - player.getRemainedTime();
@@ -348,8 +385,8 @@ public final class UpdateAudioVisitor implements AudioVisitor {
 
                         user.removeAd();
 
-                        player.setRemainedTime(albumSongs.get(i).getDuration());
-                        player.setAlbumState(albumSongs.get(i));
+                        player.setRemainedTime(songsOrder.getSong(i).getDuration());
+                        player.setAlbumState(songsOrder, i);
                         return;
                     }
 
@@ -358,7 +395,8 @@ public final class UpdateAudioVisitor implements AudioVisitor {
                     player.setRemainedTime(player.getRemainedTime() + AD_DURATION);
                 }
 
-                currSong = albumSongs.get(i);
+                Song currSong = songsOrder.getSong(i);
+                currSongIndex = i;
 
                 user.getWrapped().updateSongListens(currSong);
 
@@ -381,8 +419,8 @@ public final class UpdateAudioVisitor implements AudioVisitor {
             // if the album is ended
             if (isEnded) {
                 if (player.getRepeat() == 1) {
-                    player.setAlbumState(albumSongs.get(0));
-                    albumSongs.get(0).setPlayed(true);
+                    player.setAlbumState(songsOrder, 0);
+                    player.getAlbumState().setPlayed(true);
                 } else {
                     player.setAlbumState(null);
                     album.setPlayed(false);
@@ -395,8 +433,8 @@ public final class UpdateAudioVisitor implements AudioVisitor {
                     player.resetPlayer();
                 }
             } else {
-                player.setAlbumState(currSong);
-                currSong.setPlayed(true);
+                player.setAlbumState(songsOrder, currSongIndex);
+                player.getAlbumState().setPlayed(true);
                 if (player.getRepeat() == 1) {
                     isFinished = true;
                 }
@@ -406,14 +444,9 @@ public final class UpdateAudioVisitor implements AudioVisitor {
     }
 
     private void updateAlbum(final Album album) {
-        ArrayList<Song> albumSongs;
-        if (player.getShuffle()) {
-            albumSongs = album.getShuffledSongs();
-        } else {
-            albumSongs = album.getSongs();
-        }
+        SongOrder songsOrder = player.getPlayingOrder(album, album.getSongsOrder());
 
-        if (albumSongs.isEmpty()) {
+        if (songsOrder.size() == 0) {
             player.setPrevCommandTimestamp(timestamp);
             return;
         }
@@ -442,9 +475,9 @@ public final class UpdateAudioVisitor implements AudioVisitor {
             // if the song has finished
             // and no repeat, reach the next song
             if (player.getRepeat() == 0) {
-                iterateAlbumSongs(album, albumSongs, timestampDiff);
+                iterateAlbumSongs(album, songsOrder, timestampDiff);
             } else if (player.getRepeat() == 1) { // repeat all
-                iterateAlbumSongs(album, albumSongs, timestampDiff);
+                iterateAlbumSongs(album, songsOrder, timestampDiff);
             } else { // repeat current song
                 Song currSong = player.getAlbumState();
                 Integer currSongDuration = player.getAlbumState().getDuration();
@@ -452,9 +485,7 @@ public final class UpdateAudioVisitor implements AudioVisitor {
                 Integer songRepeatTimes = Math.floorDiv(timestampDiff, currSongDuration);
                 timestampDiff -= (songRepeatTimes * currSongDuration);
 
-                for (int i = 0; i < songRepeatTimes; ++i) {
-                    user.getWrapped().updateSongListens(currSong);
-                }
+                user.getWrapped().updateSongListens(currSong, songRepeatTimes);
                 if (timestampDiff != 0) {
                     user.getWrapped().updateSongListens(currSong);
                 }
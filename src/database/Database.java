@@ -1,11 +1,13 @@
 package database;
 
+import audioentities.AudioEntity;
 import audioentities.audiocollections.Album;
 import audioentities.audiocollections.Playlist;
 import audioentities.audiocollections.Podcast;
-import audioentities.audiocollections.audioCollectionsStates.PodcastState;
+import audioentities.audiocollections.SongOrder;
 import audioentities.audiofiles.Song;
 import ioparser.CommandInput;
+import scheduler.TimingWheel;
 import userentities.UserEntity;
 import userentities.artist.Artist;
 import userentities.factory.ArtistFactory;
@@ -14,37 +16,88 @@ import userentities.factory.UserEntityFactory;
 import userentities.factory.UserFactory;
 import userentities.host.Host;
 import userentities.user.User;
+import userentities.user.player.Player;
+import userentities.user.searchbar.index.SearchIndex;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 public final class Database {
-    private static Database database = null;
     // constants
     public static final Integer MAX_LEN = 5;
 
     private ArrayList<User> normalUsers;
+    // connected normal users, in the order of normalUsers
+    private final TreeSet<User> onlineUsers;
+    private final Collection<User> onlineUsersView;
     private ArrayList<Artist> artists;
     private ArrayList<Host> hosts;
     private ArrayList<Song> songs;
+    // snapshot of songs, taken again after the songs change
+    private SongOrder songsOrder;
     private ArrayList<Podcast> podcasts;
     private ArrayList<Playlist> playlists;
     private ArrayList<Album> albums;
-
-    private Database() {
+    // username index over normalUsers, artists and hosts
+    private final Hashtable<String, UserEntity> userEntities;
+    // running players, keyed by their next track-end, episode-end or ad-break event
+    private final TimingWheel<Player> playerEvents;
+    // search indexes over songs, podcasts, albums and playlists
+    private SearchIndex<Song> songIndex;
+    private SearchIndex<Podcast> podcastIndex;
+    private SearchIndex<Album> albumIndex;
+    private SearchIndex<Playlist> playlistIndex;
+    // songs, albums and artists ranked by likes, and playlists by followers
+    private final Ranking<Song> songRanking;
+    private final Ranking<Album> albumRanking;
+    private final Ranking<Artist> artistRanking;
+    private final Ranking<Playlist> playlistRanking;
+    // dense IDs of the audio entities and of the user entities
+    private final IdRegistry audioIds;
+    private final IdRegistry userIds;
+    // the users' playlists containing each song and the users who liked it, indexed by
+    // the ID of the song, allocated only for the songs in a playlist or liked by someone
+    private final ArrayList<HashSet<Playlist>> songPlaylists;
+    private final ArrayList<HashSet<User>> songLikers;
+    private int registeredUsers;
+    private Integer timestamp;
+
+    Database() {
+        userEntities = new Hashtable<>();
+        onlineUsers = new TreeSet<>(Comparator.comparingInt(User::getRegistrationIndex));
+        onlineUsersView = Collections.unmodifiableCollection(onlineUsers);
+        playerEvents = new TimingWheel<>();
+        songIndex = new SearchIndex<>();
+        podcastIndex = new SearchIndex<>();
+        albumIndex = new SearchIndex<>();
+        playlistIndex = new SearchIndex<>();
+        songRanking = new Ranking<>((first, second) -> 0);
+        albumRanking = new Ranking<>(Comparator.comparing(Album::getName));
+        artistRanking = new Ranking<>((first, second) -> 0);
+        playlistRanking = new Ranking<>((first, second) -> 0);
+        audioIds = new IdRegistry();
+        userIds = new IdRegistry();
+        songPlaylists = new ArrayList<>();
+        songLikers = new ArrayList<>();
+        registeredUsers = 0;
+        timestamp = 0;
     }
 
     /**
-     * Retrieves the singleton instance of the Database.
+     * Retrieves the database of the run on the current thread.
      *
      * @return The Database instance.
      */
     public static Database getDatabase() {
-        if (database == null) {
-            database = new Database();
-        }
-        return database;
+        return SimulationContext.current().getDatabase();
     }
 
     public ArrayList<User> getNormalUsers() {
@@ -52,7 +105,19 @@ public final class Database {
     }
 
     public void setNormalUsers(final ArrayList<User> normalUsers) {
+        unindexUserEntities(this.normalUsers);
         this.normalUsers = normalUsers;
+        indexUserEntities(normalUsers);
+
+        playerEvents.clear();
+        timestamp = 0;
+        onlineUsers.clear();
+        for (User user : normalUsers) {
+            user.setRegistrationIndex(registeredUsers++);
+            if (user.isConnected()) {
+                onlineUsers.add(user);
+            }
+        }
     }
 
     public ArrayList<Artist> getArtists() {
@@ -60,7 +125,20 @@ public final class Database {
     }
 
     public void setArtists(final ArrayList<Artist> artists) {
+        unindexUserEntities(this.artists);
         this.artists = artists;
+        indexUserEntities(artists);
+        artistRanking.clear();
+        for (Artist artist : artists) {
+            artist.setRegistrationIndex(registeredUsers++);
+
+            int artistLikes = 0;
+            for (Album album : artist.getAlbums()) {
+                artistLikes += countAlbumLikes(album);
+            }
+            artist.setTotalLikeCount(artistLikes);
+            artistRanking.add(artist, artistLikes);
+        }
     }
 
     public ArrayList<Host> getHosts() {
@@ -68,15 +146,51 @@ public final class Database {
     }
 
     public void setHosts(final ArrayList<Host> hosts) {
+        unindexUserEntities(this.hosts);
         this.hosts = hosts;
+        indexUserEntities(hosts);
+        for (Host host : hosts) {
+            host.setRegistrationIndex(registeredUsers++);
+        }
     }
 
     public ArrayList<Song> getSongs() {
         return songs;
     }
 
+    public int getAudioIdBound() {
+        return audioIds.getBound();
+    }
+
+    public int getUserIdBound() {
+        return userIds.getBound();
+    }
+
+    /**
+     * Retrieves a snapshot of the songs in the database, in their order.
+     *
+     * @return The snapshot of the current songs.
+     */
+    public SongOrder getSongsOrder() {
+        if (songsOrder == null) {
+            songsOrder = new SongOrder(songs);
+        }
+        return songsOrder;
+    }
+
     public void setSongs(final ArrayList<Song> songs) {
+        releaseAudioEntities(this.songs);
+        songPlaylists.clear();
+        songLikers.clear();
         this.songs = songs;
+        registerAudioEntities(songs);
+        songsOrder = null;
+        songIndex = new SearchIndex<>();
+        songRanking.clear();
+        for (Song song : songs) {
+            indexSong(song);
+            songRanking.add(song, song.getLikeCount());
+        }
     }
 
     public ArrayList<Podcast> getPodcasts() {
@@ -84,7 +198,17 @@ public final class Database {
     }
 
     public void setPodcasts(final ArrayList<Podcast> podcasts) {
+        if (this.podcasts != null) {
+            for (Podcast podcast : this.podcasts) {
+                releasePodcast(podcast);
+            }
+        }
         this.podcasts = podcasts;
+        podcastIndex = new SearchIndex<>();
+        for (Podcast podcast : podcasts) {
+            registerPodcast(podcast);
+            indexPodcast(podcast);
+        }
     }
 
     public ArrayList<Playlist> getPlaylists() {
@@ -92,7 +216,15 @@ public final class Database {
     }
 
     public void setPlaylists(final ArrayList<Playlist> playlists) {
+        releaseAudioEntities(this.playlists);
         this.playlists = playlists;
+        registerAudioEntities(playlists);
+        playlistIndex = new SearchIndex<>();
+        playlistRanking.clear();
+        for (Playlist playlist : playlists) {
+            indexPlaylist(playlist);
+            playlistRanking.add(playlist, playlist.getFollowers());
+        }
     }
 
     public ArrayList<Album> getAlbums() {
@@ -100,7 +232,434 @@ public final class Database {
     }
 
     public void setAlbums(final ArrayList<Album> albums) {
+        releaseAudioEntities(this.albums);
         this.albums = albums;
+        registerAudioEntities(albums);
+        albumIndex = new SearchIndex<>();
+        albumRanking.clear();
+        for (Album album : albums) {
+            indexAlbum(album);
+            album.setTotalLikeCount(countAlbumLikes(album));
+            albumRanking.add(album, album.getTotalLikeCount());
+        }
+    }
+
+    public SearchIndex<Song> getSongIndex() {
+        return songIndex;
+    }
+
+    public SearchIndex<Podcast> getPodcastIndex() {
+        return podcastIndex;
+    }
+
+    public SearchIndex<Album> getAlbumIndex() {
+        return albumIndex;
+    }
+
+    public SearchIndex<Playlist> getPlaylistIndex() {
+        return playlistIndex;
+    }
+
+    private void registerAudioEntity(final AudioEntity entity) {
+        if (entity.getId() == IdRegistry.NO_ID) {
+            entity.setId(audioIds.acquire());
+        }
+    }
+
+    private void releaseAudioEntity(final AudioEntity entity) {
+        audioIds.release(entity.getId());
+        entity.setId(IdRegistry.NO_ID);
+    }
+
+    private void registerAudioEntities(final ArrayList<? extends AudioEntity> entities) {
+        for (AudioEntity entity : entities) {
+            registerAudioEntity(entity);
+        }
+    }
+
+    private void releaseAudioEntities(final ArrayList<? extends AudioEntity> entities) {
+        if (entities == null) {
+            return;
+        }
+        for (AudioEntity entity : entities) {
+            releaseAudioEntity(entity);
+        }
+    }
+
+    private void releaseSong(final Song song) {
+        clearReferences(songPlaylists, song);
+        clearReferences(songLikers, song);
+        releaseAudioEntity(song);
+    }
+
+    private void registerPodcast(final Podcast podcast) {
+        registerAudioEntity(podcast);
+        registerAudioEntities(podcast.getEpisodes());
+    }
+
+    private void releasePodcast(final Podcast podcast) {
+        releaseAudioEntity(podcast);
+        releaseAudioEntities(podcast.getEpisodes());
+    }
+
+    private void registerUserEntity(final UserEntity entity) {
+        if (entity.getId() == IdRegistry.NO_ID) {
+            entity.setId(userIds.acquire());
+        }
+    }
+
+    private void releaseUserEntity(final UserEntity entity) {
+        userIds.release(entity.getId());
+        entity.setId(IdRegistry.NO_ID);
+    }
+
+    private void indexSong(final Song song) {
+        songIndex.add(song, song.getNameKey());
+        songIndex.addKey(SearchIndex.ALBUM, song.getAlbumKey(), song);
+        for (String tag : song.getTags()) {
+            songIndex.addKey(SearchIndex.TAGS, tag, song);
+        }
+        songIndex.addText(song, song.getLyricsKey());
+        songIndex.addKey(SearchIndex.GENRE, song.getGenreKey(), song);
+        songIndex.addKey(SearchIndex.ARTIST, song.getArtistKey(), song);
+        songIndex.addReleaseYear(song, song.getReleaseYear());
+    }
+
+    private void indexPodcast(final Podcast podcast) {
+        podcastIndex.add(podcast, podcast.getNameKey());
+        podcastIndex.addKey(SearchIndex.OWNER, podcast.getFoldedOwnerKey(), podcast);
+    }
+
+    private void indexAlbum(final Album album) {
+        // albums are searched in the order of their artists
+        UserEntity owner = userEntities.get(album.getOwner());
+        int group = owner == null ? 0 : owner.getRegistrationIndex();
+        albumIndex.add(album, album.getNameKey(), group);
+        albumIndex.addKey(SearchIndex.OWNER, album.getFoldedOwnerKey(), album);
+    }
+
+    private void indexPlaylist(final Playlist playlist) {
+        playlistIndex.add(playlist, playlist.getNameKey());
+        playlistIndex.addKey(SearchIndex.OWNER, playlist.getOwnerKey(), playlist);
+    }
+
+    private int countAlbumLikes(final Album album) {
+        int albumLikes = 0;
+        for (Song song : album.getSongs()) {
+            albumLikes += song.getLikeCount();
+        }
+        return albumLikes;
+    }
+
+    private void changeArtistLikes(final Artist artist, final int delta) {
+        artist.setTotalLikeCount(artist.getTotalLikeCount() + delta);
+        artistRanking.setScore(artist, artist.getTotalLikeCount());
+    }
+
+    /**
+     * Adds an album and its songs to the database, to the search indexes and to the rankings.
+     *
+     * @param album The album to be added.
+     */
+    public void addAlbum(final Album album) {
+        albums.add(album);
+        registerAudioEntity(album);
+        indexAlbum(album);
+        album.setTotalLikeCount(countAlbumLikes(album));
+        albumRanking.add(album, album.getTotalLikeCount());
+        songsOrder = null;
+        for (Song song : album.getSongs()) {
+            songs.add(song);
+            registerAudioEntity(song);
+            indexSong(song);
+            songRanking.add(song, song.getLikeCount());
+        }
+        if (album.getOwningArtist() != null) {
+            changeArtistLikes(album.getOwningArtist(), album.getTotalLikeCount());
+        }
+    }
+
+    /**
+     * Removes an album and its songs from the database, from the search indexes
+     * and from the rankings.
+     *
+     * @param album The album to be removed.
+     */
+    public void removeAlbum(final Album album) {
+        albums.remove(album);
+        releaseAudioEntity(album);
+        albumIndex.remove(album);
+        albumRanking.remove(album);
+        if (album.getOwningArtist() != null) {
+            changeArtistLikes(album.getOwningArtist(), -album.getTotalLikeCount());
+        }
+        unlinkAlbum(album);
+        Set<Song> removedSongs = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Song song : album.getSongs()) {
+            removedSongs.add(song);
+            releaseSong(song);
+            songIndex.remove(song);
+            songRanking.remove(song);
+        }
+        removeSongs(removedSongs);
+    }
+
+    /**
+     * Removes songs from the list of all the songs in a single pass over it,
+     * instead of searching the list for each of them.
+     *
+     * @param removedSongs The songs to be removed.
+     */
+    private void removeSongs(final Set<Song> removedSongs) {
+        songs.removeIf(removedSongs::contains);
+        songsOrder = null;
+    }
+
+    /**
+     * Changes the like count of a song, along with the like totals of its album and artist.
+     *
+     * @param song The liked or unliked song.
+     * @param delta The change of the like count.
+     */
+    public void changeLikeCount(final Song song, final int delta) {
+        song.setLikeCount(song.getLikeCount() + delta);
+        songRanking.setScore(song, song.getLikeCount());
+
+        Album album = song.getOwningAlbum();
+        if (album == null) {
+            return;
+        }
+        album.setTotalLikeCount(album.getTotalLikeCount() + delta);
+        albumRanking.setScore(album, album.getTotalLikeCount());
+        if (album.getOwningArtist() != null) {
+            changeArtistLikes(album.getOwningArtist(), delta);
+        }
+    }
+
+    /**
+     * Changes the follower count of a playlist.
+     *
+     * @param playlist The followed or unfollowed playlist.
+     * @param delta The change of the follower count.
+     */
+    public void changeFollowers(final Playlist playlist, final int delta) {
+        playlist.setFollowers(playlist.getFollowers() + delta);
+        playlistRanking.setScore(playlist, playlist.getFollowers());
+    }
+
+    /**
+     * Clears the references from an album and its songs to their artist,
+     * so that they are no longer credited to it.
+     */
+    private void unlinkAlbum(final Album album) {
+        album.setOwningArtist(null);
+        for (Song song : album.getSongs()) {
+            song.setOwningAlbum(null);
+        }
+    }
+
+    /**
+     * Removes a song from the users' playlists containing it
+     * and from the likedSongs of the users who liked it.
+     *
+     * @param song The removed song.
+     */
+    public void unlinkSong(final Song song) {
+        for (Playlist playlist : clearReferences(songPlaylists, song)) {
+            playlist.removeSong(song);
+        }
+        for (User user : clearReferences(songLikers, song)) {
+            user.getLikedSongs().remove(song);
+        }
+    }
+
+    /**
+     * Records that a song was added to a user's playlist.
+     *
+     * @param song The added song.
+     * @param playlist The playlist the song was added to.
+     */
+    public void addSongPlaylist(final Song song, final Playlist playlist) {
+        addReference(songPlaylists, song, playlist);
+    }
+
+    /**
+     * Records that a song was removed from a user's playlist.
+     *
+     * @param song The removed song.
+     * @param playlist The playlist the song was removed from.
+     */
+    public void removeSongPlaylist(final Song song, final Playlist playlist) {
+        removeReference(songPlaylists, song, playlist);
+    }
+
+    /**
+     * Records that a user liked a song.
+     *
+     * @param song The liked song.
+     * @param user The user who liked the song.
+     */
+    public void addSongLiker(final Song song, final User user) {
+        addReference(songLikers, song, user);
+    }
+
+    /**
+     * Records that a user unliked a song.
+     *
+     * @param song The unliked song.
+     * @param user The user who unliked the song.
+     */
+    public void removeSongLiker(final Song song, final User user) {
+        removeReference(songLikers, song, user);
+    }
+
+    private static <T> void addReference(final ArrayList<HashSet<T>> references,
+                                         final Song song, final T reference) {
+        int id = song.getId();
+        if (id == IdRegistry.NO_ID) {
+            // a removed song is no longer unlinked, so nothing has to be recorded
+            return;
+        }
+        while (references.size() <= id) {
+            references.add(null);
+        }
+        HashSet<T> songReferences = references.get(id);
+        if (songReferences == null) {
+            songReferences = new HashSet<>();
+            references.set(id, songReferences);
+        }
+        songReferences.add(reference);
+    }
+
+    private static <T> void removeReference(final ArrayList<HashSet<T>> references,
+                                            final Song song, final T reference) {
+        int id = song.getId();
+        if (id == IdRegistry.NO_ID || id >= references.size()) {
+            return;
+        }
+        HashSet<T> songReferences = references.get(id);
+        if (songReferences != null) {
+            songReferences.remove(reference);
+            if (songReferences.isEmpty()) {
+                references.set(id, null);
+            }
+        }
+    }
+
+    /**
+     * Removes all the references to a song, so that its ID can be given again.
+     *
+     * @param references The references of the songs, indexed by their IDs.
+     * @param song The song whose references are removed.
+     * @return The removed references.
+     */
+    private static <T> Collection<T> clearReferences(final ArrayList<HashSet<T>> references,
+                                                     final Song song) {
+        int id = song.getId();
+        if (id == IdRegistry.NO_ID || id >= references.size() || references.get(id) == null) {
+            return Collections.emptySet();
+        }
+        return references.set(id, null);
+    }
+
+    /**
+     * Adds a podcast to the database and to the search indexes.
+     *
+     * @param podcast The podcast to be added.
+     */
+    public void addPodcast(final Podcast podcast) {
+        podcasts.add(podcast);
+        registerPodcast(podcast);
+        indexPodcast(podcast);
+    }
+
+    /**
+     * Removes a podcast from the database, from the search indexes
+     * and from the players that keep a state of it.
+     *
+     * @param podcast The podcast to be removed.
+     */
+    public void removePodcast(final Podcast podcast) {
+        podcasts.remove(podcast);
+        releasePodcast(podcast);
+        podcastIndex.remove(podcast);
+        podcast.setOwningHost(null);
+        for (Player player : podcast.getListeners()) {
+            player.removePodcastState(podcast);
+        }
+        podcast.getListeners().clear();
+    }
+
+    /**
+     * Adds a playlist to the database, to the search indexes and to the rankings.
+     *
+     * @param playlist The playlist to be added.
+     */
+    public void addPlaylist(final Playlist playlist) {
+        playlists.add(playlist);
+        registerAudioEntity(playlist);
+        indexPlaylist(playlist);
+        playlistRanking.add(playlist, playlist.getFollowers());
+    }
+
+    private void indexUserEntities(final ArrayList<? extends UserEntity> entities) {
+        if (entities == null) {
+            return;
+        }
+        for (UserEntity entity : entities) {
+            userEntities.put(entity.getUsername(), entity);
+            registerUserEntity(entity);
+        }
+    }
+
+    private void unindexUserEntities(final ArrayList<? extends UserEntity> entities) {
+        if (entities == null) {
+            return;
+        }
+        for (UserEntity entity : entities) {
+            userEntities.remove(entity.getUsername(), entity);
+            releaseUserEntity(entity);
+        }
+    }
+
+    /**
+     * Adds a normal user to the database and to the username index.
+     *
+     * @param user The user to be added.
+     */
+    public void addNormalUser(final User user) {
+        user.setRegistrationIndex(registeredUsers++);
+        normalUsers.add(user);
+        userEntities.put(user.getUsername(), user);
+        registerUserEntity(user);
+        if (user.isConnected()) {
+            onlineUsers.add(user);
+        }
+    }
+
+    /**
+     * Adds an artist to the database, to the username index and to the rankings.
+     *
+     * @param artist The artist to be added.
+     */
+    public void addArtist(final Artist artist) {
+        artist.setRegistrationIndex(registeredUsers++);
+        artists.add(artist);
+        userEntities.put(artist.getUsername(), artist);
+        registerUserEntity(artist);
+        artistRanking.add(artist, artist.getTotalLikeCount());
+    }
+
+    /**
+     * Adds a host to the database and to the username index.
+     *
+     * @param host The host to be added.
+     */
+    public void addHost(final Host host) {
+        host.setRegistrationIndex(registeredUsers++);
+        hosts.add(host);
+        userEntities.put(host.getUsername(), host);
+        registerUserEntity(host);
     }
 
     /**
@@ -109,16 +668,7 @@ public final class Database {
      * @return A List of Song objects representing the top 5 songs sorted by their like count.
      */
     public List<Song> getTop5Songs() {
-        List<Song> sortedLikedSongs = new ArrayList<Song>(songs);
-        sortedLikedSongs.sort(new Comparator<Song>() {
-            @Override
-            public int compare(final Song s1, final Song s2) {
-                return s2.getLikeCount().compareTo(s1.getLikeCount());
-            }
-        });
-
-        int minSize = Math.min(MAX_LEN, sortedLikedSongs.size());
-        return sortedLikedSongs.subList(0, minSize);
+        return songRanking.top(MAX_LEN);
     }
 
     /**
@@ -128,16 +678,7 @@ public final class Database {
      *        sorted by the number of followers.
      */
     public List<Playlist> getTop5Playlists() {
-        List<Playlist> sortedFollowedPlaylists = new ArrayList<Playlist>(playlists);
-        sortedFollowedPlaylists.sort(new Comparator<Playlist>() {
-            @Override
-            public int compare(final Playlist s1, final Playlist s2) {
-                return s2.getFollowers().compareTo(s1.getFollowers());
-            }
-        });
-
-        int minSize = Math.min(MAX_LEN, sortedFollowedPlaylists.size());
-        return sortedFollowedPlaylists.subList(0, minSize);
+        return playlistRanking.top(MAX_LEN);
     }
 
     /**
@@ -147,27 +688,7 @@ public final class Database {
      * sorted by total song like count.
      */
     public List<Album> getTop5Albums() {
-        for (Album album : albums) {
-            Integer albumLikes = 0;
-            for (Song song : album.getSongs()) {
-                albumLikes += song.getLikeCount();
-            }
-            album.setTotalLikeCount(albumLikes);
-        }
-
-        List<Album> sortedLikedAlbums = new ArrayList<Album>(albums);
-        sortedLikedAlbums.sort(new Comparator<Album>() {
-            @Override
-            public int compare(final Album s1, final Album s2) {
-                if (s2.getTotalLikeCount().compareTo(s1.getTotalLikeCount()) == 0) {
-                    return s1.getName().compareTo(s2.getName());
-                }
-                return s2.getTotalLikeCount().compareTo(s1.getTotalLikeCount());
-            }
-        });
-
-        int minSize = Math.min(MAX_LEN, sortedLikedAlbums.size());
-        return sortedLikedAlbums.subList(0, minSize);
+        return albumRanking.top(MAX_LEN);
     }
 
     /**
@@ -177,46 +698,29 @@ public final class Database {
      * sorted by total album like count.
      */
     public List<Artist> getTop5Artists() {
-        for (Artist artist : artists) {
-            Integer artistLikes = 0;
-            for (Album album : artist.getAlbums()) {
-                Integer albumLikes = 0;
-                for (Song song : album.getSongs()) {
-                    albumLikes += song.getLikeCount();
-                }
-                album.setTotalLikeCount(albumLikes);
-                artistLikes += album.getTotalLikeCount();
-            }
-            artist.setTotalLikeCount(artistLikes);
-        }
-
-        List<Artist> sortedLikedArtists = new ArrayList<Artist>(artists);
-        sortedLikedArtists.sort(new Comparator<Artist>() {
-            @Override
-            public int compare(final Artist s1, final Artist s2) {
-                return s2.getTotalLikeCount().compareTo(s1.getTotalLikeCount());
-            }
-        });
-
-        int minSize = Math.min(MAX_LEN, sortedLikedArtists.size());
-        return sortedLikedArtists.subList(0, minSize);
+        return artistRanking.top(MAX_LEN);
     }
 
     /**
-     * Retrieves a list of online users.
+     * Retrieves the online users.
      *
-     * @return An ArrayList of User objects representing users currently online.
+     * @return A read-only view of the users currently online, in the order of normalUsers.
      */
-    public ArrayList<User> getOnlineUsers() {
-        ArrayList<User> onlineUsers = new ArrayList<User>();
+    public Collection<User> getOnlineUsers() {
+        return onlineUsersView;
+    }
 
-        for (User user : normalUsers) {
-            if (user.isConnected()) {
-                onlineUsers.add(user);
-            }
+    /**
+     * Adds a user to the online users or removes it, after its connection status changed.
+     *
+     * @param user The user whose connection status changed.
+     */
+    public void updateOnlineUser(final User user) {
+        if (user.isConnected()) {
+            onlineUsers.add(user);
+        } else {
+            onlineUsers.remove(user);
         }
-
-        return onlineUsers;
     }
 
     /**
@@ -235,22 +739,7 @@ public final class Database {
     }
 
     private boolean usernameExists(final String username) {
-        for (User user : normalUsers) {
-            if (user.getUsername().compareTo(username) == 0) {
-                return true;
-            }
-        }
-        for (Artist artist : artists) {
-            if (artist.getUsername().compareTo(username) == 0) {
-                return true;
-            }
-        }
-        for (Host host : hosts) {
-            if (host.getUsername().compareTo(username) == 0) {
-                return true;
-            }
-        }
-        return false;
+        return userEntities.containsKey(username);
     }
 
     /**
@@ -260,23 +749,7 @@ public final class Database {
      * @return The UserEntity corresponding to the given username, or null if not found.
      */
     public UserEntity getUserEntity(final String username) {
-        for (User user : normalUsers) {
-            if (user.getUsername().compareTo(username) == 0) {
-                return user;
-            }
-        }
-        for (Artist artist : artists) {
-            if (artist.getUsername().compareTo(username) == 0) {
-                return artist;
-            }
-        }
-        for (Host host : hosts) {
-            if (host.getUsername().compareTo(username) == 0) {
-                return host;
-            }
-        }
-
-        return null;
+        return userEntities.get(username);
     }
 
     /**
@@ -362,12 +835,46 @@ public final class Database {
 
     /**
      * Updates users based on a given timestamp.
+     * Only running players whose current track or ad ends until the given timestamp
+     * are updated, the others keep their state until they are touched or caught up.
      *
      * @param timestamp The timestamp used for updating users.
      */
     public void updateUsersTimestamps(final Integer timestamp) {
-        for (User user : getOnlineUsers()) {
-            user.getPlayer().updatePlayer(timestamp);
+        this.timestamp = timestamp;
+
+        // due players are updated in the order of normalUsers
+        ArrayList<Player> duePlayers = playerEvents.advance(timestamp);
+        duePlayers.sort(Comparator.comparingInt(
+                player -> player.getUser().getRegistrationIndex()));
+        for (Player player : duePlayers) {
+            player.updatePlayer(timestamp);
+            trackPlayer(player);
+        }
+    }
+
+    /**
+     * Brings all the running players to the timestamp of the current command.
+     * Used before commands that need a consistent state of every player.
+     */
+    public void catchUpPlayers() {
+        for (Player player : playerEvents.getScheduled()) {
+            player.updatePlayer(timestamp);
+        }
+    }
+
+    /**
+     * Starts or stops advancing the given player with time, based on its current state.
+     * Must be called after every command of the player's user.
+     *
+     * @param player The player to be tracked.
+     */
+    public void trackPlayer(final Player player) {
+        User user = player.getUser();
+        if (player.isRunning() && userEntities.get(user.getUsername()) == user) {
+            playerEvents.schedule(player, player.getNextEventTimestamp());
+        } else {
+            playerEvents.cancel(player);
         }
     }
 
@@ -425,10 +932,24 @@ public final class Database {
             }
 
             normalUsers.remove(currUser);
+            onlineUsers.remove(currUser);
+            userEntities.remove(username);
+            releaseUserEntity(currUser);
+            playerEvents.cancel(((User) currUser).getPlayer());
+            ((User) currUser).getPlayer().clearPodcastsStates();
+            // release what the user plays and searched
+            ((User) currUser).getPlayer().resetPlayer();
+            ((User) currUser).getSearchBar().resetSearchBarUsers();
 
             // delete the user's playlist from the database
             for (Playlist playlist : ((User) currUser).getPlaylists()) {
                 playlists.remove(playlist);
+                releaseAudioEntity(playlist);
+                playlistIndex.remove(playlist);
+                playlistRanking.remove(playlist);
+                for (Song song : playlist.getSongs()) {
+                    removeSongPlaylist(song, playlist);
+                }
                 // delete the current user's playlist
                 // from every user that follows the playlist
                 for (User user : getNormalUsers()) {
@@ -437,34 +958,21 @@ public final class Database {
             }
             // decrement users' playlists follower count
             for (Playlist playlist : ((User) currUser).getFollowedPlaylists()) {
-                playlist.setFollowers(playlist.getFollowers() - 1);
+                changeFollowers(playlist, -1);
             }
 
             // decrement users' likedSongs like count
             for (Song song : ((User) currUser).getLikedSongs()) {
-                song.setLikeCount(song.getLikeCount() - 1);
+                changeLikeCount(song, -1);
+                removeSongLiker(song, (User) currUser);
             }
 
             return  username + " was successfully deleted.";
         }
 
-        for (User user : normalUsers) {
-            if (currUser == user) {
-                continue;
-            }
-            // if a user has the artist or host searched
-            if (user.getSearchBar().getFoundUsers() != null) {
-                for (UserEntity searchedUser : user.getSearchBar().getFoundUsers()) {
-                    if (searchedUser == currUser) {
-                        return username + " can't be deleted.";
-                    }
-                }
-            }
-
-            // if a user has the artist or host selected (has their page loaded)
-            if (user.getSearchBar().getSelectedUser() == currUser) {
-                return username + " can't be deleted.";
-            }
+        // if a user has the artist or host searched or selected (has their page loaded)
+        if (currUser.isSearched()) {
+            return username + " can't be deleted.";
         }
 
         // if an artist, look if one of their song or album is being played by another user
@@ -482,22 +990,30 @@ public final class Database {
             }
 
             artists.remove(currArtist);
+            userEntities.remove(username);
+            releaseUserEntity(currArtist);
+            artistRanking.remove(currArtist);
 
             // delete all artists' songs and albums from database
+            Set<Song> removedSongs = Collections.newSetFromMap(new IdentityHashMap<>());
+            Set<Album> removedAlbums = Collections.newSetFromMap(new IdentityHashMap<>());
             for (Album album : currArtist.getAlbums()) {
                 for (Song song : album.getSongs()) {
-                    songs.remove(song);
-                    // delete all artists' songs from all users' playlists
-                    for (Playlist playlist : playlists) {
-                        playlist.getSongs().remove(song);
-                    }
-                    // delete all artists' songs from all users' likedSongs
-                    for (User user : getNormalUsers()) {
-                        user.getLikedSongs().remove(song);
-                    }
+                    // delete all artists' songs from all users' playlists and likedSongs
+                    unlinkSong(song);
+                    removedSongs.add(song);
+                    releaseSong(song);
+                    songIndex.remove(song);
+                    songRanking.remove(song);
                 }
-                albums.remove(album);
+                removedAlbums.add(album);
+                releaseAudioEntity(album);
+                albumIndex.remove(album);
+                albumRanking.remove(album);
+                unlinkAlbum(album);
             }
+            removeSongs(removedSongs);
+            albums.removeIf(removedAlbums::contains);
         }
         // if a host, look if one of their podcasts is being played by another user
         if (currUser.getType().compareTo("host") == 0) {
@@ -509,21 +1025,12 @@ public final class Database {
             }
 
             hosts.remove(currHost);
+            userEntities.remove(username);
+            releaseUserEntity(currHost);
 
-            // remove users' podcasts from the database
+            // remove users' podcasts and their states from the database
             for (Podcast podcast : currHost.getPodcasts()) {
-                podcasts.remove(podcast);
-
-                // remove podcast states from all the users
-                for (User user : getNormalUsers()) {
-                    for (PodcastState podcastState : user.getPlayer().getPodcastsStates()) {
-                        if (podcastState.getPodcast() == podcast) {
-                            user.getPlayer().getPodcastsStates().remove(podcastState);
-                            break;
-                        }
-                    }
-
-                }
+                removePodcast(podcast);
             }
         }
 
@@ -0,0 +1,66 @@
+package database;
+
+import java.util.BitSet;
+
+/**
+ * Dense integer IDs for the entities of the database.
+ * The ID of a removed entity is given again only to an entity added after it,
+ * and the smallest free ID is always given first, so the IDs stay below the
+ * number of entities that were ever present at the same time.
+ */
+public final class IdRegistry {
+    // constants
+    public static final int NO_ID = -1;
+
+    // IDs smaller than bound that were released and can be given again
+    private final BitSet free;
+    private int bound;
+
+    public IdRegistry() {
+        free = new BitSet();
+        bound = 0;
+    }
+
+    /**
+     * Gives an ID that no other present entity has.
+     *
+     * @return The smallest free ID.
+     */
+    public int acquire() {
+        int id = free.nextSetBit(0);
+        if (id < 0) {
+            return bound++;
+        }
+        free.clear(id);
+        return id;
+    }
+
+    /**
+     * Frees the ID of a removed entity, so that it can be given again.
+     *
+     * @param id The ID to be freed, or NO_ID.
+     */
+    public void release(final int id) {
+        if (id == NO_ID) {
+            return;
+        }
+        if (id == bound - 1) {
+            // shrink the bound over the free IDs at its end
+            --bound;
+            while (bound > 0 && free.get(bound - 1)) {
+                free.clear(--bound);
+            }
+        } else {
+            free.set(id);
+        }
+    }
+
+    /**
+     * Retrieves an upper bound of the given IDs, to size arrays indexed by them.
+     *
+     * @return A number greater than every ID that is in use.
+     */
+    public int getBound() {
+        return bound;
+    }
+}
@@ -0,0 +1,110 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * Entities of a catalog kept sorted by a score, in decreasing order.
+ * Equal scores are ordered by the tie breaker, and then by the order
+ * in which the entities were added, like a stable sort of the catalog would.
+ *
+ * @param <T> The type of the ranked entities.
+ */
+final class Ranking<T> {
+    private final Hashtable<T, Rank> ranks;
+    private final TreeSet<T> ranked;
+    private long addedEntities;
+
+    private static final class Rank {
+        private int score;
+        private final long order;
+
+        Rank(final int score, final long order) {
+            this.score = score;
+            this.order = order;
+        }
+    }
+
+    Ranking(final Comparator<T> tieBreaker) {
+        ranks = new Hashtable<>();
+        ranked = new TreeSet<>((first, second) -> {
+            Rank firstRank = ranks.get(first);
+            Rank secondRank = ranks.get(second);
+            if (firstRank.score != secondRank.score) {
+                return Integer.compare(secondRank.score, firstRank.score);
+            }
+            int tie = tieBreaker.compare(first, second);
+            if (tie != 0) {
+                return tie;
+            }
+            return Long.compare(firstRank.order, secondRank.order);
+        });
+        addedEntities = 0;
+    }
+
+    /**
+     * Adds an entity after all the entities added before it.
+     *
+     * @param entity The entity to be added.
+     * @param score The score of the entity.
+     */
+    void add(final T entity, final int score) {
+        ranks.put(entity, new Rank(score, addedEntities++));
+        ranked.add(entity);
+    }
+
+    /**
+     * Removes an entity, if it is ranked.
+     *
+     * @param entity The entity to be removed.
+     */
+    void remove(final T entity) {
+        if (ranks.containsKey(entity)) {
+            ranked.remove(entity);
+            ranks.remove(entity);
+        }
+    }
+
+    /**
+     * Changes the score of an entity, if it is ranked.
+     *
+     * @param entity The entity whose score changed.
+     * @param score The new score of the entity.
+     */
+    void setScore(final T entity, final int score) {
+        Rank rank = ranks.get(entity);
+        if (rank == null || rank.score == score) {
+            return;
+        }
+        ranked.remove(entity);
+        rank.score = score;
+        ranked.add(entity);
+    }
+
+    /**
+     * Removes all the entities.
+     */
+    void clear() {
+        ranked.clear();
+        ranks.clear();
+        addedEntities = 0;
+    }
+
+    /**
+     * Retrieves the first entities of the ranking.
+     *
+     * @param count The maximum number of entities.
+     * @return The first count entities, or all of them if there are fewer.
+     */
+    ArrayList<T> top(final int count) {
+        ArrayList<T> top = new ArrayList<>();
+        Iterator<T> iterator = ranked.iterator();
+        while (top.size() < count && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+}
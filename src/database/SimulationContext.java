@@ -0,0 +1,77 @@
+package database;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ioparser.OutputWriter;
+
+/**
+ * State of one run of an input file: its database, whose timestamp is the clock of the run,
+ * and the writer of its outputs. The context is bound to the thread running the file,
+ * so that runs of several files on different threads don't share any state.
+ * The command outputs and the players are given the context, or its database,
+ * when they are created; the binding serves the entities that look it up.
+ */
+public final class SimulationContext implements AutoCloseable {
+    private static final ThreadLocal<SimulationContext> CURRENT = new ThreadLocal<>();
+
+    private final Database database;
+    private final ObjectMapper objectMapper;
+    private final OutputWriter outputs;
+
+    private SimulationContext(final ObjectMapper objectMapper, final OutputWriter outputs) {
+        database = new Database();
+        this.objectMapper = objectMapper;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Starts a run on the current thread, with an empty database.
+     *
+     * @param objectMapper The ObjectMapper used for building the outputs.
+     * @param outputs The writer of the outputs.
+     * @return The context of the run, to be closed when the run ends.
+     */
+    public static SimulationContext open(final ObjectMapper objectMapper,
+                                         final OutputWriter outputs) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("A simulation is already running on this thread.");
+        }
+        SimulationContext context = new SimulationContext(objectMapper, outputs);
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * Retrieves the context of the run on the current thread.
+     *
+     * @return The current context.
+     */
+    public static SimulationContext current() {
+        SimulationContext context = CURRENT.get();
+        if (context == null) {
+            throw new IllegalStateException("No simulation is running on this thread.");
+        }
+        return context;
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public OutputWriter getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * Ends the run on the current thread.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+}
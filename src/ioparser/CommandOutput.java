@@ -10,30 +10,28 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import database.Database;
+import database.SimulationContext;
 import userentities.UserEntity;
 import userentities.artist.Artist;
 import userentities.host.Host;
 import userentities.user.User;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public final class CommandOutput {
     // constants
     private static final Double HUNDRED = 100.0;
 
-    private static ObjectMapper objectMapper;
-    private static ArrayNode outputs;
+    private final Database database;
+    private final ObjectMapper objectMapper;
+    private final OutputWriter outputs;
 
-    private CommandOutput() {
-    }
-
-    public static void setObjectMapper(final ObjectMapper objectMapper) {
-        CommandOutput.objectMapper = objectMapper;
-    }
-
-    public static void setOutputs(final ArrayNode outputs) {
-        CommandOutput.outputs = outputs;
+    public CommandOutput(final SimulationContext context) {
+        database = context.getDatabase();
+        objectMapper = context.getObjectMapper();
+        outputs = context.getOutputs();
     }
 
     /**
@@ -43,7 +41,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing search parameters.
      * @param user  The User object performing the search.
      */
-    public static void search(final CommandInput input, final User user) {
+    public void search(final CommandInput input, final User user) {
         String searchMessage = user.getSearchBar().search(input);
 
         ArrayNode foundArrayNode = objectMapper.createArrayNode();
@@ -87,7 +85,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing selection parameters.
      * @param user  The User object making the selection.
      */
-    public static void select(final CommandInput input, final User user) {
+    public void select(final CommandInput input, final User user) {
         String selectMessage = user.getSearchBar().select(input);
 
         ObjectNode selectNode = objectMapper.createObjectNode();
@@ -105,7 +103,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing load parameters.
      * @param user  The User object performing the load operation.
      */
-    public static void load(final CommandInput input, final User user) {
+    public void load(final CommandInput input, final User user) {
         String loadMessage = user.getPlayer().load(input);
 
         ObjectNode loadNode = objectMapper.createObjectNode();
@@ -123,7 +121,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing play/pause parameters.
      * @param user  The User object controlling the playback.
      */
-    public static void playPause(final CommandInput input, final User user) {
+    public void playPause(final CommandInput input, final User user) {
         String playPauseMessage = user.getPlayer().playPause(input);
 
         ObjectNode playPauseNode = objectMapper.createObjectNode();
@@ -141,7 +139,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object whose playback status is checked.
      */
-    public static void status(final CommandInput input, final User user) {
+    public void status(final CommandInput input, final User user) {
         String audioFileName = user.getPlayer().status(input);
 
         ObjectNode statusNode = objectMapper.createObjectNode();
@@ -187,7 +185,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing playlist creation parameters.
      * @param user  The User object creating the playlist.
      */
-    public static void createPlaylist(final CommandInput input, final User user) {
+    public void createPlaylist(final CommandInput input, final User user) {
         String createPlaylistMessage = user.createPlaylist(input);
 
         ObjectNode createPlaylistNode = objectMapper.createObjectNode();
@@ -205,7 +203,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing playlist modification parameters.
      * @param user  The User object modifying the playlist.
      */
-    public static void addRemoveInPlaylist(final CommandInput input, final User user) {
+    public void addRemoveInPlaylist(final CommandInput input, final User user) {
         String addRemoveInPlaylistMessage = user.addRemoveInPlaylist(input);
 
         ObjectNode addRemoveInPlaylistNode = objectMapper.createObjectNode();
@@ -223,7 +221,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing like/unlike parameters.
      * @param user  The User object performing the like/unlike operation.
      */
-    public static void like(final CommandInput input, final User user) {
+    public void like(final CommandInput input, final User user) {
         String likeMessage = user.like(input);
 
         ObjectNode likeNode = objectMapper.createObjectNode();
@@ -241,7 +239,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object whose playlists are being shown.
      */
-    public static void showPlaylists(final CommandInput input, final User user) {
+    public void showPlaylists(final CommandInput input, final User user) {
         ArrayList<Playlist> userPlaylists = user.getPlaylists();
 
         ArrayNode resultShowPlaylistsArray = objectMapper.createArrayNode();
@@ -276,7 +274,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object whose preferred songs are being retrieved.
      */
-    public static void showPreferredSongs(final CommandInput input, final User user) {
+    public void showPreferredSongs(final CommandInput input, final User user) {
         ArrayList<Song> userLikedSongs = user.getLikedSongs();
 
         ArrayNode resultPreferredSongsArray = objectMapper.createArrayNode();
@@ -299,7 +297,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing repeat mode details.
      * @param user  The User object controlling the audio playback.
      */
-    public static void repeat(final CommandInput input, final User user) {
+    public void repeat(final CommandInput input, final User user) {
         String repeatMessage = user.getPlayer().repeat(input);
 
         ObjectNode repeatNode = objectMapper.createObjectNode();
@@ -317,7 +315,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing shuffle mode details.
      * @param user  The User object controlling the audio playback.
      */
-    public static void shuffle(final CommandInput input, final User user) {
+    public void shuffle(final CommandInput input, final User user) {
         String shuffleMessage =
                 user.getPlayer().shuffle(input);
 
@@ -336,7 +334,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object controlling the audio playback.
      */
-    public static void forward(final CommandInput input, final User user) {
+    public void forward(final CommandInput input, final User user) {
         String forwardMessage = user.getPlayer().forward(input);
 
         ObjectNode forwardNode = objectMapper.createObjectNode();
@@ -354,7 +352,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object controlling the audio playback.
      */
-    public static void backward(final CommandInput input, final User user) {
+    public void backward(final CommandInput input, final User user) {
         String backwardMessage = user.getPlayer().backward(input);
 
         ObjectNode backwardNode = objectMapper.createObjectNode();
@@ -372,7 +370,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object controlling the audio playback.
      */
-    public static void next(final CommandInput input, final User user) {
+    public void next(final CommandInput input, final User user) {
         String nextMessage = user.getPlayer().next(input);
 
         ObjectNode nextNode = objectMapper.createObjectNode();
@@ -390,7 +388,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object controlling the audio playback.
      */
-    public static void prev(final CommandInput input, final User user) {
+    public void prev(final CommandInput input, final User user) {
         String prevMessage = user.getPlayer().prev(input);
 
         ObjectNode prevNode = objectMapper.createObjectNode();
@@ -408,7 +406,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing visibility details.
      * @param user  The User object controlling the playlist visibility.
      */
-    public static void switchVisibility(final CommandInput input, final User user) {
+    public void switchVisibility(final CommandInput input, final User user) {
         String switchVisibilityMessage = user.switchVisibility(input);
 
         ObjectNode switchVisibilityNode = objectMapper.createObjectNode();
@@ -426,7 +424,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object following the playlist.
      */
-    public static void follow(final CommandInput input, final User user) {
+    public void follow(final CommandInput input, final User user) {
         String followPlaylistMessage = user.followPlaylist();
 
         ObjectNode followNode = objectMapper.createObjectNode();
@@ -444,8 +442,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing connection status details.
      * @param user  The user whose connection status is being toggled.
      */
-    public static void switchConnectionStatus(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void switchConnectionStatus(final CommandInput input, final UserEntity user) {
 
         StringBuilder switchConnectionStringBuilder = new StringBuilder();
         String switchConnectionMessage;
@@ -471,7 +468,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The Artist whose albums are being retrieved.
      */
-    public static void showAlbums(final CommandInput input, final UserEntity user) {
+    public void showAlbums(final CommandInput input, final UserEntity user) {
         ArrayList<Album> albums = ((Artist) user).getAlbums();
 
         ArrayNode showAlbumsArray = objectMapper.createArrayNode();
@@ -501,7 +498,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The User object viewing the current page.
      */
-    public static void printCurrentPage(final CommandInput input, final User user) {
+    public void printCurrentPage(final CommandInput input, final User user) {
         String printCurrentPageMessage = user.printCurrentPage();
 
         ObjectNode printCurrentPageNode = objectMapper.createObjectNode();
@@ -519,8 +516,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing album details.
      * @param user  The Artist adding the album.
      */
-    public static void addAlbum(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void addAlbum(final CommandInput input, final UserEntity user) {
 
         StringBuilder addAlbumStringBuilder = new StringBuilder();
         String addAlbumMessage;
@@ -545,12 +541,12 @@ public final class CommandOutput {
      * @param input The CommandInput object containing album details.
      * @param user  The Artist removing the album.
      */
-    public static void removeAlbum(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void removeAlbum(final CommandInput input, final UserEntity user) {
 
         StringBuilder removeAlbumStringBuilder = new StringBuilder();
         String removeAlbumMessage;
         if (!database.errorArtist(input, removeAlbumStringBuilder)) {
+            database.catchUpPlayers();
             removeAlbumMessage = ((Artist) user).removeAlbum(input);
         } else {
             removeAlbumMessage = removeAlbumStringBuilder.toString();
@@ -571,8 +567,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing event details.
      * @param user  The Artist adding the event.
      */
-    public static void addEvent(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void addEvent(final CommandInput input, final UserEntity user) {
 
         StringBuilder addEventStringBuilder = new StringBuilder();
         String addEventMessage;
@@ -597,8 +592,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing event details.
      * @param user  The Artist removing the event.
      */
-    public static void removeEvent(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void removeEvent(final CommandInput input, final UserEntity user) {
 
         StringBuilder removeEventStringBuilder = new StringBuilder();
         String removeEventMessage;
@@ -623,8 +617,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing merchandise details.
      * @param user  The Artist adding the merchandise.
      */
-    public static void addMerch(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void addMerch(final CommandInput input, final UserEntity user) {
 
         StringBuilder addMerchStringBuilder = new StringBuilder();
         String addMerchMessage;
@@ -649,8 +642,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing podcast details.
      * @param user  The Host adding the podcast.
      */
-    public static void addPodcast(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void addPodcast(final CommandInput input, final UserEntity user) {
 
         StringBuilder addPodcastStringBuilder = new StringBuilder();
         String addPodcastMessage;
@@ -675,8 +667,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing podcast details.
      * @param user  The Host removing the podcast.
      */
-    public static void removePodcast(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void removePodcast(final CommandInput input, final UserEntity user) {
 
         StringBuilder removePodcastStringBuilder = new StringBuilder();
         String removePodcastMessage;
@@ -701,8 +692,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing announcement details.
      * @param user  The Host adding the announcement.
      */
-    public static void addAnnouncement(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void addAnnouncement(final CommandInput input, final UserEntity user) {
 
         StringBuilder addAnnouncementStringBuilder = new StringBuilder();
         String addAnnouncementMessage;
@@ -727,8 +717,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing announcement details.
      * @param user  The Host removing the announcement.
      */
-    public static void removeAnnouncement(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void removeAnnouncement(final CommandInput input, final UserEntity user) {
 
         StringBuilder removeAnnouncementStringBuilder = new StringBuilder();
         String removeAnnouncementMessage;
@@ -753,7 +742,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user  The Host whose podcasts are being retrieved.
      */
-    public static void showPodcasts(final CommandInput input, final UserEntity user) {
+    public void showPodcasts(final CommandInput input, final UserEntity user) {
         ArrayList<Podcast> podcasts = ((Host) user).getPodcasts();
 
         ArrayNode showPodcastsArray = objectMapper.createArrayNode();
@@ -783,7 +772,7 @@ public final class CommandOutput {
      * @param input The CommandInput object containing page details.
      * @param user  The User object navigating the pages.
      */
-    public static void changePage(final CommandInput input, final User user) {
+    public void changePage(final CommandInput input, final User user) {
         String changePageMessage = user.changePage(input);
 
         ObjectNode changePageNode = objectMapper.createObjectNode();
@@ -800,8 +789,7 @@ public final class CommandOutput {
      *
      * @param input The CommandInput object containing user details.
      */
-    public static void addUser(final CommandInput input) {
-        Database database = Database.getDatabase();
+    public void addUser(final CommandInput input) {
 
         String addUserMessage = database.addUser(input);
 
@@ -819,8 +807,8 @@ public final class CommandOutput {
      *
      * @param input The CommandInput object containing user details.
      */
-    public static void deleteUser(final CommandInput input) {
-        Database database = Database.getDatabase();
+    public void deleteUser(final CommandInput input) {
+        database.catchUpPlayers();
 
         String deleteUserMessage = database.deleteUser(input);
 
@@ -838,10 +826,9 @@ public final class CommandOutput {
      *
      * @param input The CommandInput object.
      */
-    public static void getOnlineUsers(final CommandInput input) {
-        Database database = Database.getDatabase();
+    public void getOnlineUsers(final CommandInput input) {
 
-        ArrayList<User> onlineUsers = database.getOnlineUsers();
+        Collection<User> onlineUsers = database.getOnlineUsers();
 
         ArrayNode onlineUsersArray = objectMapper.createArrayNode();
         for (User onlineUser : onlineUsers) {
@@ -861,8 +848,7 @@ public final class CommandOutput {
      *
      * @param input The CommandInput object.
      */
-    public static void getAllUsers(final CommandInput input) {
-        Database database = Database.getDatabase();
+    public void getAllUsers(final CommandInput input) {
 
         ArrayList<UserEntity> allUsers = database.getAllUsers();
 
@@ -884,8 +870,8 @@ public final class CommandOutput {
      *
      * @param input The CommandInput object.
      */
-    public static void getTop5Songs(final CommandInput input) {
-        Database database = Database.getDatabase();
+    public void getTop5Songs(final CommandInput input) {
+        database.catchUpPlayers();
 
         List<Song> topSongs = database.getTop5Songs();
 
@@ -907,8 +893,8 @@ public final class CommandOutput {
      *
      * @param input The CommandInput object.
      */
-    public static void getTop5Playlists(final CommandInput input) {
-        Database database = Database.getDatabase();
+    public void getTop5Playlists(final CommandInput input) {
+        database.catchUpPlayers();
 
         List<Playlist> topPlaylists = database.getTop5Playlists();
 
@@ -930,8 +916,8 @@ public final class CommandOutput {
      *
      * @param input The CommandInput object.
      */
-    public static void getTop5Albums(final CommandInput input) {
-        Database database = Database.getDatabase();
+    public void getTop5Albums(final CommandInput input) {
+        database.catchUpPlayers();
 
         List<Album> topAlbums = database.getTop5Albums();
 
@@ -953,8 +939,8 @@ public final class CommandOutput {
      *
      * @param input The CommandInput object.
      */
-    public static void getTop5Artists(final CommandInput input) {
-        Database database = Database.getDatabase();
+    public void getTop5Artists(final CommandInput input) {
+        database.catchUpPlayers();
 
         List<Artist> topArtists = database.getTop5Artists();
 
@@ -977,7 +963,8 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity for whom wrapped data is generated.
      */
-    public static void wrapped(final CommandInput input, final UserEntity user) {
+    public void wrapped(final CommandInput input, final UserEntity user) {
+        database.catchUpPlayers();
         user.calculateWrapped();
 
         ObjectNode wrappedNode = objectMapper.createObjectNode();
@@ -1096,8 +1083,8 @@ public final class CommandOutput {
      * and adds the result to outputs.
      * Is called at the end of the program execution.
      */
-    public static void endProgram() {
-        Database database = Database.getDatabase();
+    public void endProgram() {
+        database.catchUpPlayers();
 
         ObjectNode endProgramNode = objectMapper.createObjectNode();
         ObjectNode resultNode = objectMapper.createObjectNode();
@@ -1139,7 +1126,7 @@ public final class CommandOutput {
      * @param input The CommandInput object;
      * @param user The user entity for whom the premium subscription is to be purchased.
      */
-    public static void buyPremium(final CommandInput input, final User user) {
+    public void buyPremium(final CommandInput input, final User user) {
         String buyPremiumMessage;
         if (user == null) {
             buyPremiumMessage = "The username " + input.getUsername() + " doesn't exist.";
@@ -1162,7 +1149,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity for whom the premium subscription is to be canceled.
      */
-    public static void cancelPremium(final CommandInput input, final User user) {
+    public void cancelPremium(final CommandInput input, final User user) {
         String cancelPremiumMessage;
         if (user == null) {
             cancelPremiumMessage = "The username " + input.getUsername() + " doesn't exist.";
@@ -1185,7 +1172,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity getting the ad break.
      */
-    public static void adBreak(final CommandInput input, final User user) {
+    public void adBreak(final CommandInput input, final User user) {
         String adBreakMessage;
         if (user == null) {
             adBreakMessage = "The username " + input.getUsername() + " doesn't exist.";
@@ -1208,7 +1195,7 @@ public final class CommandOutput {
      * @param input The CommandInput object;
      * @param user The user entity subscribing to a service.
      */
-    public static void subscribe(final CommandInput input, final User user) {
+    public void subscribe(final CommandInput input, final User user) {
         String subscribeMessage;
         if (user == null) {
             subscribeMessage = "The username " + input.getUsername() + " doesn't exist.";
@@ -1231,7 +1218,7 @@ public final class CommandOutput {
      * @param input The CommandInput object;
      * @param user The user entity for whom notifications are to be retrieved.
      */
-    public static void getNotifications(final CommandInput input, final User user) {
+    public void getNotifications(final CommandInput input, final User user) {
         ArrayList<String> notifications = user.getNotifications();
 
         ObjectNode getNotificationsNode = objectMapper.createObjectNode();
@@ -1280,7 +1267,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity making the merchandise purchase.
      */
-    public static void buyMerch(final CommandInput input, final User user) {
+    public void buyMerch(final CommandInput input, final User user) {
         String buyMerchMessage;
         if (user == null) {
             buyMerchMessage = "The username " + input.getUsername() + " doesn't exist.";
@@ -1303,7 +1290,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity for whom purchased merchandise is to be retrieved.
      */
-    public static void seeMerch(final CommandInput input, final User user) {
+    public void seeMerch(final CommandInput input, final User user) {
         ArrayList<String> merch = user.getBoughtMerch();
 
         ArrayNode merchNode = objectMapper.createArrayNode();
@@ -1327,7 +1314,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity navigating to the next page.
      */
-    public static void nextPage(final CommandInput input, final User user) {
+    public void nextPage(final CommandInput input, final User user) {
         String nextPageMessage;
         if (user == null) {
             nextPageMessage = "The username " + input.getUsername() + " doesn't exist.";
@@ -1350,7 +1337,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity navigating to the previous page.
      */
-    public static void previousPage(final CommandInput input, final User user) {
+    public void previousPage(final CommandInput input, final User user) {
         String previousPageMessage;
         if (user == null) {
             previousPageMessage = "The username " + input.getUsername() + " doesn't exist.";
@@ -1373,7 +1360,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity for whom recommendations are to be loaded.
      */
-    public static void loadRecommendations(final CommandInput input, final User user) {
+    public void loadRecommendations(final CommandInput input, final User user) {
         String loadRecommendationsMessage = user.loadRecommendations(input);
 
         ObjectNode loadRecommendationsNode = objectMapper.createObjectNode();
@@ -1392,8 +1379,7 @@ public final class CommandOutput {
      * @param input The CommandInput object.
      * @param user The user entity for whom recommendations are to be updated.
      */
-    public static void updateRecommendations(final CommandInput input, final UserEntity user) {
-        Database database = Database.getDatabase();
+    public void updateRecommendations(final CommandInput input, final UserEntity user) {
 
         StringBuilder updateRecommendationsStringBuilder = new StringBuilder();
         String updateRecommendationsMessage;
@@ -0,0 +1,48 @@
+package ioparser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reads the commands of an input file one at a time, as they are executed,
+ * instead of loading the whole array of commands up front.
+ */
+public final class CommandReader implements Closeable {
+    private final JsonParser parser;
+    private final ObjectReader commandReader;
+
+    public CommandReader(final ObjectMapper objectMapper, final File file) throws IOException {
+        parser = objectMapper.getFactory().createParser(file);
+        commandReader = objectMapper.readerFor(CommandInput.class);
+
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("The commands in " + file + " must be a JSON array.");
+        }
+    }
+
+    /**
+     * Reads the next command of the file.
+     *
+     * @return The next command, or null if all the commands were read.
+     * @throws IOException in case of exceptions to reading
+     */
+    public CommandInput next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        return commandReader.readValue(parser);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
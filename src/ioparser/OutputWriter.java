@@ -0,0 +1,56 @@
+package ioparser;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the outputs of the commands to a file as a JSON array, as they are produced,
+ * instead of keeping all of them in memory until the end.
+ * When pretty printed, the file is the same as the one written by
+ * writerWithDefaultPrettyPrinter for an ArrayNode of the same outputs.
+ */
+public final class OutputWriter implements Closeable {
+    private final JsonGenerator generator;
+    private final ObjectWriter nodeWriter;
+
+    public OutputWriter(final ObjectMapper objectMapper, final File file,
+                        final boolean prettyPrint) throws IOException {
+        // the generator buffers the output and writes it to the file when the buffer is full
+        generator = objectMapper.getFactory().createGenerator(file, JsonEncoding.UTF8);
+        if (prettyPrint) {
+            generator.setPrettyPrinter(new DefaultPrettyPrinter());
+        }
+        nodeWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        generator.writeStartArray();
+    }
+
+    /**
+     * Writes the output of a command after the outputs written before it.
+     *
+     * @param output The output of the command.
+     */
+    public void add(final JsonNode output) {
+        try {
+            nodeWriter.writeValue(generator, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+}
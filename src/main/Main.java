@@ -1,16 +1,13 @@
 package main;
 
 import audioentities.audiocollections.Podcast;
-import audioentities.audiocollections.audioCollectionsStates.PodcastState;
 import audioentities.audiofiles.Episode;
 import audioentities.audiofiles.Song;
 import checker.Checker;
 import checker.CheckerConstants;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import database.Database;
+import database.SimulationContext;
 import fileio.input.SongInput;
 import fileio.input.EpisodeInput;
 import fileio.input.LibraryInput;
@@ -18,6 +15,8 @@ import fileio.input.PodcastInput;
 import fileio.input.UserInput;
 import ioparser.CommandInput;
 import ioparser.CommandOutput;
+import ioparser.CommandReader;
+import ioparser.OutputWriter;
 import userentities.user.User;
 import userentities.UserEntity;
 
@@ -27,6 +26,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -35,6 +35,13 @@ import java.util.Objects;
 public final class Main {
     static final String LIBRARY_PATH = CheckerConstants.TESTS_PATH + "library/library.json";
 
+    // the library is parsed once and its songs are copied for every test,
+    // since the tests only change the copies
+    private static List<UserInput> libraryUsers = null;
+    private static ArrayList<Song> librarySongs = null;
+    private static List<PodcastInput> libraryPodcasts = null;
+    private static long libraryModified = 0;
+
     /**
      * for coding style
      */
@@ -76,6 +83,29 @@ public final class Main {
         Checker.calculateScore();
     }
 
+    /**
+     * Parses the library, unless it was parsed already and hasn't changed since.
+     *
+     * @param objectMapper The ObjectMapper used for parsing.
+     * @throws IOException in case of exceptions to reading
+     */
+    private static void loadLibrary(final ObjectMapper objectMapper) throws IOException {
+        File libraryFile = new File(LIBRARY_PATH);
+        if (librarySongs != null && libraryFile.lastModified() == libraryModified) {
+            return;
+        }
+
+        // only the songs are decoded, as templates of the songs of the tests
+        libraryModified = libraryFile.lastModified();
+        LibraryInput library = objectMapper.readValue(libraryFile, LibraryInput.class);
+        libraryUsers = library.getUsers();
+        librarySongs = new ArrayList<Song>(library.getSongs().size());
+        for (SongInput song : library.getSongs()) {
+            librarySongs.add(new Song(song));
+        }
+        libraryPodcasts = library.getPodcasts();
+    }
+
     /**
      * @param filePathInput for input file
      * @param filePathOutput for output file
@@ -84,133 +114,156 @@ public final class Main {
     public static void action(final String filePathInput,
                               final String filePathOutput) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
-        LibraryInput library = objectMapper.readValue(new File(LIBRARY_PATH), LibraryInput.class);
-
-        ArrayNode outputs = objectMapper.createArrayNode();
-
-        // parsing input
-        String filepath = CheckerConstants.TESTS_PATH + filePathInput;
-        ArrayList<CommandInput> inputCommands =
-                objectMapper.readValue(new File(filepath), new TypeReference<>() { });
-
-        CommandOutput.setObjectMapper(objectMapper);
-        CommandOutput.setOutputs(outputs);
-
-        // generating users info
-        ArrayList<User> users = new ArrayList<User>();
-        for (UserInput user : library.getUsers()) {
-            users.add(new User(user.getUsername(), user.getAge(), user.getCity()));
+        List<UserInput> userInputs;
+        ArrayList<Song> songTemplates;
+        List<PodcastInput> podcastInputs;
+        // the cached library is shared by the runs on all the threads
+        synchronized (Main.class) {
+            loadLibrary(objectMapper);
+            userInputs = libraryUsers;
+            songTemplates = librarySongs;
+            podcastInputs = libraryPodcasts;
         }
+
         // generating songs info
-        ArrayList<Song> songs = new ArrayList<Song>();
-        for (SongInput song : library.getSongs()) {
+        ArrayList<Song> songs = new ArrayList<Song>(songTemplates.size());
+        for (Song song : songTemplates) {
             songs.add(new Song(song));
         }
         // generating podcasts info
         ArrayList<Podcast> podcasts = new ArrayList<Podcast>();
-        for (PodcastInput podcast : library.getPodcasts()) {
+        for (PodcastInput podcast : podcastInputs) {
             ArrayList<Episode> podcastEpisodes = new ArrayList<Episode>();
             for (EpisodeInput episode : podcast.getEpisodes()) {
                 podcastEpisodes.add(new Episode(episode));
             }
             podcasts.add(new Podcast(podcast.getName(), podcast.getOwner(), podcastEpisodes));
         }
-        // adding users, songs and podcasts to database
-        Database database = Database.getDatabase();
-        database.setNormalUsers(users);
-        database.setArtists(new ArrayList<>());
-        database.setHosts(new ArrayList<>());
-        database.setSongs(songs);
-        database.setPodcasts(podcasts);
-        database.setPlaylists(new ArrayList<>());
-        database.setAlbums(new ArrayList<>());
-
-        // setting the default values of podcasts states for each user's player
-        for (User user : database.getNormalUsers()) {
-            user.getPlayer().setPodcastsStates(PodcastState.setDefaultPodcastsStates(podcasts));
-        }
-
-        for (CommandInput currentCommand : inputCommands) {
-            // get the current user entity
-            UserEntity currUser = null;
-            if (currentCommand.getUsername() != null) {
-                currUser = database.getUserEntity(currentCommand.getUsername());
+        // parsing input and writing the outputs, one command at a time,
+        // in a context of the run bound to the current thread
+        File inputFile = new File(CheckerConstants.TESTS_PATH + filePathInput);
+        File outputFile = new File(filePathOutput);
+        try (CommandReader commandReader = new CommandReader(objectMapper, inputFile);
+             OutputWriter outputs = new OutputWriter(objectMapper, outputFile, true);
+             SimulationContext context = SimulationContext.open(objectMapper, outputs)) {
+            // generating users info, with players bound to the database of the run
+            Database database = context.getDatabase();
+            ArrayList<User> users = new ArrayList<User>();
+            for (UserInput user : userInputs) {
+                users.add(new User(user.getUsername(), user.getAge(), user.getCity(), database));
             }
+            CommandOutput commandOutput = new CommandOutput(context);
+
+            // adding users, songs and podcasts to database
+            database.setNormalUsers(users);
+            database.setArtists(new ArrayList<>());
+            database.setHosts(new ArrayList<>());
+            database.setSongs(songs);
+            database.setPodcasts(podcasts);
+            database.setPlaylists(new ArrayList<>());
+            database.setAlbums(new ArrayList<>());
+
+            for (CommandInput currentCommand = commandReader.next(); currentCommand != null;
+                    currentCommand = commandReader.next()) {
+                // get the current user entity
+                UserEntity currUser = null;
+                if (currentCommand.getUsername() != null) {
+                    currUser = database.getUserEntity(currentCommand.getUsername());
+                }
+
+                database.updateUsersTimestamps(currentCommand.getTimestamp());
+                // bring the current user's player to the command's timestamp
+                if (currUser instanceof User) {
+                    ((User) currUser).getPlayer().updatePlayer(currentCommand.getTimestamp());
+                }
+
+                executeCommand(commandOutput, currentCommand, currUser);
 
-            database.updateUsersTimestamps(currentCommand.getTimestamp());
-
-            switch (currentCommand.getCommand()) {
-                case "search" -> CommandOutput.search(currentCommand, (User) currUser);
-                case "select" -> CommandOutput.select(currentCommand, (User) currUser);
-                case "load" -> CommandOutput.load(currentCommand, (User) currUser);
-                case "playPause" -> CommandOutput.playPause(currentCommand, (User) currUser);
-                case "status" -> CommandOutput.status(currentCommand, (User) currUser);
-                case "createPlaylist" -> CommandOutput
-                        .createPlaylist(currentCommand, (User) currUser);
-                case "addRemoveInPlaylist" -> CommandOutput
-                        .addRemoveInPlaylist(currentCommand, (User) currUser);
-                case "like" -> CommandOutput.like(currentCommand, (User) currUser);
-                case "showPlaylists" -> CommandOutput
-                        .showPlaylists(currentCommand, (User) currUser);
-                case "showPreferredSongs" -> CommandOutput
-                        .showPreferredSongs(currentCommand, (User) currUser);
-                case "repeat" -> CommandOutput.repeat(currentCommand, (User) currUser);
-                case "shuffle" -> CommandOutput.shuffle(currentCommand, (User) currUser);
-                case "forward" -> CommandOutput.forward(currentCommand, (User) currUser);
-                case "backward" -> CommandOutput.backward(currentCommand, (User) currUser);
-                case "next" -> CommandOutput.next(currentCommand, (User) currUser);
-                case "prev" -> CommandOutput.prev(currentCommand, (User) currUser);
-                case "switchVisibility" -> CommandOutput
-                        .switchVisibility(currentCommand, (User) currUser);
-                case "follow" -> CommandOutput.follow(currentCommand, (User) currUser);
-                case "switchConnectionStatus" -> CommandOutput
-                        .switchConnectionStatus(currentCommand, currUser);
-                case "showAlbums" -> CommandOutput.showAlbums(currentCommand, currUser);
-                case "printCurrentPage" -> CommandOutput
-                        .printCurrentPage(currentCommand, (User) currUser);
-                case "addAlbum" -> CommandOutput.addAlbum(currentCommand, currUser);
-                case "removeAlbum" -> CommandOutput.removeAlbum(currentCommand, currUser);
-                case "addEvent" -> CommandOutput.addEvent(currentCommand, currUser);
-                case "removeEvent" -> CommandOutput.removeEvent(currentCommand, currUser);
-                case "addMerch" -> CommandOutput.addMerch(currentCommand, currUser);
-                case "addPodcast" -> CommandOutput.addPodcast(currentCommand, currUser);
-                case "removePodcast" -> CommandOutput.removePodcast(currentCommand, currUser);
-                case "addAnnouncement" -> CommandOutput.addAnnouncement(currentCommand, currUser);
-                case "removeAnnouncement" -> CommandOutput
-                        .removeAnnouncement(currentCommand, currUser);
-                case "showPodcasts" -> CommandOutput.showPodcasts(currentCommand, currUser);
-                case "changePage" -> CommandOutput.changePage(currentCommand, (User) currUser);
-                case "addUser" -> CommandOutput.addUser(currentCommand);
-                case "deleteUser" -> CommandOutput.deleteUser(currentCommand);
-                case "getOnlineUsers" -> CommandOutput.getOnlineUsers(currentCommand);
-                case "getAllUsers" -> CommandOutput.getAllUsers(currentCommand);
-                case "getTop5Songs" -> CommandOutput.getTop5Songs(currentCommand);
-                case "getTop5Playlists" -> CommandOutput.getTop5Playlists(currentCommand);
-                case "getTop5Albums" -> CommandOutput.getTop5Albums(currentCommand);
-                case "getTop5Artists" -> CommandOutput.getTop5Artists(currentCommand);
-                case "wrapped" -> CommandOutput.wrapped(currentCommand, currUser);
-                case "buyPremium" -> CommandOutput.buyPremium(currentCommand, (User) currUser);
-                case "cancelPremium" -> CommandOutput
-                        .cancelPremium(currentCommand, (User) currUser);
-                case "adBreak" -> CommandOutput.adBreak(currentCommand, (User) currUser);
-                case "subscribe" -> CommandOutput.subscribe(currentCommand, (User) currUser);
-                case "getNotifications" -> CommandOutput
-                        .getNotifications(currentCommand, (User) currUser);
-                case "buyMerch" -> CommandOutput.buyMerch(currentCommand, (User) currUser);
-                case "seeMerch" -> CommandOutput.seeMerch(currentCommand, (User) currUser);
-                case "nextPage" -> CommandOutput.nextPage(currentCommand, (User) currUser);
-                case "previousPage" -> CommandOutput.previousPage(currentCommand, (User) currUser);
-                case "loadRecommendations" -> CommandOutput
-                        .loadRecommendations(currentCommand, (User) currUser);
-                case "updateRecommendations" -> CommandOutput
-                        .updateRecommendations(currentCommand, currUser);
-                default -> System.out.println("Invalid command");
+                if (currUser instanceof User) {
+                    database.trackPlayer(((User) currUser).getPlayer());
+                }
             }
-        }
 
-        CommandOutput.endProgram();
+            commandOutput.endProgram();
+        }
+    }
 
-        ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
-        objectWriter.writeValue(new File(filePathOutput), outputs);
+    /**
+     * Executes a command on behalf of the user entity that gave it.
+     *
+     * @param commandOutput The writer of the outputs of the commands of the run.
+     * @param currentCommand The command to be executed.
+     * @param currUser The user entity that gave the command, or null if it has no username.
+     */
+    private static void executeCommand(final CommandOutput commandOutput,
+                                       final CommandInput currentCommand,
+                                       final UserEntity currUser) {
+        switch (currentCommand.getCommand()) {
+            case "search" -> commandOutput.search(currentCommand, (User) currUser);
+            case "select" -> commandOutput.select(currentCommand, (User) currUser);
+            case "load" -> commandOutput.load(currentCommand, (User) currUser);
+            case "playPause" -> commandOutput.playPause(currentCommand, (User) currUser);
+            case "status" -> commandOutput.status(currentCommand, (User) currUser);
+            case "createPlaylist" -> commandOutput
+                    .createPlaylist(currentCommand, (User) currUser);
+            case "addRemoveInPlaylist" -> commandOutput
+                    .addRemoveInPlaylist(currentCommand, (User) currUser);
+            case "like" -> commandOutput.like(currentCommand, (User) currUser);
+            case "showPlaylists" -> commandOutput
+                    .showPlaylists(currentCommand, (User) currUser);
+            case "showPreferredSongs" -> commandOutput
+                    .showPreferredSongs(currentCommand, (User) currUser);
+            case "repeat" -> commandOutput.repeat(currentCommand, (User) currUser);
+            case "shuffle" -> commandOutput.shuffle(currentCommand, (User) currUser);
+            case "forward" -> commandOutput.forward(currentCommand, (User) currUser);
+            case "backward" -> commandOutput.backward(currentCommand, (User) currUser);
+            case "next" -> commandOutput.next(currentCommand, (User) currUser);
+            case "prev" -> commandOutput.prev(currentCommand, (User) currUser);
+            case "switchVisibility" -> commandOutput
+                    .switchVisibility(currentCommand, (User) currUser);
+            case "follow" -> commandOutput.follow(currentCommand, (User) currUser);
+            case "switchConnectionStatus" -> commandOutput
+                    .switchConnectionStatus(currentCommand, currUser);
+            case "showAlbums" -> commandOutput.showAlbums(currentCommand, currUser);
+            case "printCurrentPage" -> commandOutput
+                    .printCurrentPage(currentCommand, (User) currUser);
+            case "addAlbum" -> commandOutput.addAlbum(currentCommand, currUser);
+            case "removeAlbum" -> commandOutput.removeAlbum(currentCommand, currUser);
+            case "addEvent" -> commandOutput.addEvent(currentCommand, currUser);
+            case "removeEvent" -> commandOutput.removeEvent(currentCommand, currUser);
+            case "addMerch" -> commandOutput.addMerch(currentCommand, currUser);
+            case "addPodcast" -> commandOutput.addPodcast(currentCommand, currUser);
+            case "removePodcast" -> commandOutput.removePodcast(currentCommand, currUser);
+            case "addAnnouncement" -> commandOutput.addAnnouncement(currentCommand, currUser);
+            case "removeAnnouncement" -> commandOutput
+                    .removeAnnouncement(currentCommand, currUser);
+            case "showPodcasts" -> commandOutput.showPodcasts(currentCommand, currUser);
+            case "changePage" -> commandOutput.changePage(currentCommand, (User) currUser);
+            case "addUser" -> commandOutput.addUser(currentCommand);
+            case "deleteUser" -> commandOutput.deleteUser(currentCommand);
+            case "getOnlineUsers" -> commandOutput.getOnlineUsers(currentCommand);
+            case "getAllUsers" -> commandOutput.getAllUsers(currentCommand);
+            case "getTop5Songs" -> commandOutput.getTop5Songs(currentCommand);
+            case "getTop5Playlists" -> commandOutput.getTop5Playlists(currentCommand);
+            case "getTop5Albums" -> commandOutput.getTop5Albums(currentCommand);
+            case "getTop5Artists" -> commandOutput.getTop5Artists(currentCommand);
+            case "wrapped" -> commandOutput.wrapped(currentCommand, currUser);
+            case "buyPremium" -> commandOutput.buyPremium(currentCommand, (User) currUser);
+            case "cancelPremium" -> commandOutput
+                    .cancelPremium(currentCommand, (User) currUser);
+            case "adBreak" -> commandOutput.adBreak(currentCommand, (User) currUser);
+            case "subscribe" -> commandOutput.subscribe(currentCommand, (User) currUser);
+            case "getNotifications" -> commandOutput
+                    .getNotifications(currentCommand, (User) currUser);
+            case "buyMerch" -> commandOutput.buyMerch(currentCommand, (User) currUser);
+            case "seeMerch" -> commandOutput.seeMerch(currentCommand, (User) currUser);
+            case "nextPage" -> commandOutput.nextPage(currentCommand, (User) currUser);
+            case "previousPage" -> commandOutput.previousPage(currentCommand, (User) currUser);
+            case "loadRecommendations" -> commandOutput
+                    .loadRecommendations(currentCommand, (User) currUser);
+            case "updateRecommendations" -> commandOutput
+                    .updateRecommendations(currentCommand, currUser);
+            default -> System.out.println("Invalid command");
+        }
     }
 }
@@ -0,0 +1,100 @@
+package main;
+
+import checker.CheckerConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Use this if you want to run all the input files on several threads.
+ * Every file runs in its own context, so the outputs are the same as the ones
+ * of a run of the files one after the other.
+ */
+public final class ParallelRunner {
+    /**
+     * for coding style
+     */
+    private ParallelRunner() {
+    }
+
+    /**
+     * @param args the number of threads, the number of processors if missing
+     * @throws IOException in case of exceptions to reading / writing
+     * @throws InterruptedException if interrupted while waiting for the runs
+     * @throws IllegalStateException if some of the files failed, after reporting them
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        int threads = args.length > 0
+                ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        File directory = new File(CheckerConstants.TESTS_PATH);
+        File[] inputDir = Objects.requireNonNull(directory.listFiles());
+        Arrays.sort(inputDir);
+        Path path = Paths.get(CheckerConstants.RESULT_PATH);
+
+        // the results of a previous run are removed, as Main does
+        if (Files.exists(path)) {
+            File resultFile = new File(String.valueOf(path));
+            for (File file : Objects.requireNonNull(resultFile.listFiles())) {
+                file.delete();
+            }
+            resultFile.delete();
+        }
+        Files.createDirectories(path);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<Future<?>> runs = new ArrayList<>();
+        // the runs start as they are submitted, so the time is taken from before
+        long startTime = System.nanoTime();
+        try {
+            for (File file : inputDir) {
+                if (file.getName().startsWith("library")) {
+                    continue;
+                }
+
+                String filepath = CheckerConstants.OUT_PATH + file.getName();
+                File out = new File(filepath);
+                if (!out.createNewFile()) {
+                    continue;
+                }
+                names.add(file.getName());
+                runs.add(pool.submit(() -> {
+                    Main.action(file.getName(), filepath);
+                    return null;
+                }));
+            }
+
+            ExecutionException firstFailure = null;
+            int failures = 0;
+            for (int i = 0; i < runs.size(); ++i) {
+                try {
+                    runs.get(i).get();
+                } catch (ExecutionException e) {
+                    System.out.println(names.get(i) + " failed: " + e.getCause());
+                    if (firstFailure == null) {
+                        firstFailure = e;
+                    }
+                    failures++;
+                }
+            }
+            System.out.println(runs.size() + " files on " + threads + " threads in "
+                    + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+            if (firstFailure != null) {
+                throw new IllegalStateException(failures + " of " + runs.size()
+                        + " files failed", firstFailure.getCause());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
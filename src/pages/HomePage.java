@@ -23,7 +23,7 @@ public final class HomePage extends PageStrategy {
         sortedLikedSongs.sort(new Comparator<Song>() {
             @Override
             public int compare(final Song s1, final Song s2) {
-                return s2.getLikeCount().compareTo(s1.getLikeCount());
+                return Integer.compare(s2.getLikeCount(), s1.getLikeCount());
             }
         });
 
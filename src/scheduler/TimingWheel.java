@@ -0,0 +1,183 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel keyed by simulation timestamps.
+ * Each item has at most one pending event. Advancing the wheel returns
+ * only the items whose event is due, without looking at the other ones.
+ *
+ * @param <T> The type of the scheduled items.
+ */
+public final class TimingWheel<T> {
+    // constants
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    // 6 levels of 64 slots cover every non-negative Integer timestamp
+    private static final int LEVELS = 6;
+
+    private final ArrayList<ArrayList<ArrayList<Entry<T>>>> levels;
+    private final int[] levelSizes;
+    private final ArrayList<Entry<T>> overdue;
+    private final Hashtable<T, Entry<T>> entries;
+    private int time;
+
+    private static final class Entry<T> {
+        private final T item;
+        private final int deadline;
+
+        Entry(final T item, final int deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+
+    public TimingWheel() {
+        levels = new ArrayList<>();
+        for (int level = 0; level < LEVELS; ++level) {
+            ArrayList<ArrayList<Entry<T>>> slots = new ArrayList<>();
+            for (int slot = 0; slot < SLOTS; ++slot) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+        }
+        levelSizes = new int[LEVELS];
+        overdue = new ArrayList<>();
+        entries = new Hashtable<>();
+        time = 0;
+    }
+
+    /**
+     * Retrieves the items that currently have a pending event.
+     *
+     * @return The set of scheduled items.
+     */
+    public Set<T> getScheduled() {
+        return entries.keySet();
+    }
+
+    /**
+     * Removes every event and resets the wheel's time.
+     */
+    public void clear() {
+        for (int level = 0; level < LEVELS; ++level) {
+            for (ArrayList<Entry<T>> slot : levels.get(level)) {
+                slot.clear();
+            }
+            levelSizes[level] = 0;
+        }
+        overdue.clear();
+        entries.clear();
+        time = 0;
+    }
+
+    /**
+     * Schedules the event of an item, replacing its previous event if it had one.
+     *
+     * @param item The item to be scheduled.
+     * @param deadline The timestamp at which the event is due.
+     */
+    public void schedule(final T item, final int deadline) {
+        Entry<T> entry = new Entry<>(item, deadline);
+        entries.put(item, entry);
+        if (deadline <= time) {
+            overdue.add(entry);
+        } else {
+            insert(entry);
+        }
+    }
+
+    /**
+     * Cancels the pending event of an item, if it has one.
+     *
+     * @param item The item whose event is canceled.
+     */
+    public void cancel(final T item) {
+        // the entry stays in its slot and gets dropped when the slot is reached
+        entries.remove(item);
+    }
+
+    /**
+     * Advances the wheel to the given timestamp and removes the due events.
+     *
+     * @param timestamp The new timestamp of the wheel.
+     * @return The items whose events are due until the given timestamp.
+     */
+    public ArrayList<T> advance(final int timestamp) {
+        ArrayList<T> due = new ArrayList<>();
+
+        collect(overdue, due);
+
+        while (time < timestamp) {
+            int level = 0;
+            while (level < LEVELS && levelSizes[level] == 0) {
+                level++;
+            }
+            if (level == LEVELS) {
+                time = timestamp;
+                break;
+            }
+            // nothing can expire before the next slot of the lowest non-empty level,
+            // so jump straight to the tick before it
+            if (level > 0) {
+                int lastTick = time | ((1 << (SLOT_BITS * level)) - 1);
+                if (lastTick >= timestamp) {
+                    time = timestamp;
+                    break;
+                }
+                time = lastTick;
+            }
+
+            time++;
+            for (int upper = 1; upper < LEVELS; ++upper) {
+                if ((time & ((1 << (SLOT_BITS * upper)) - 1)) != 0) {
+                    break;
+                }
+                cascade(upper);
+            }
+            ArrayList<Entry<T>> slot = levels.get(0).get(time & MASK);
+            levelSizes[0] -= slot.size();
+            collect(slot, due);
+        }
+
+        return due;
+    }
+
+    private void insert(final Entry<T> entry) {
+        // an entry due right now lands in the level 0 slot that is collected next
+        long delta = (long) entry.deadline - time;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (entry.deadline >>> (SLOT_BITS * level)) & MASK;
+        levels.get(level).get(slot).add(entry);
+        levelSizes[level]++;
+    }
+
+    private void cascade(final int level) {
+        ArrayList<Entry<T>> slot = levels.get(level).get((time >>> (SLOT_BITS * level)) & MASK);
+        ArrayList<Entry<T>> moved = new ArrayList<>(slot);
+        levelSizes[level] -= slot.size();
+        slot.clear();
+
+        for (Entry<T> entry : moved) {
+            if (entries.get(entry.item) == entry) {
+                insert(entry);
+            }
+        }
+    }
+
+    private void collect(final ArrayList<Entry<T>> slot, final ArrayList<T> due) {
+        for (Entry<T> entry : slot) {
+            if (entries.get(entry.item) == entry) {
+                entries.remove(entry.item);
+                due.add(entry.item);
+            }
+        }
+        slot.clear();
+    }
+}
@@ -1,18 +1,29 @@
 package userentities;
 
+import database.IdRegistry;
 import observer.NotificationManager;
 
 public abstract class UserEntity {
     protected String username;
+    // lowercase username, used by the search
+    protected String usernameKey;
     protected final Integer age;
     protected final String city;
     protected final NotificationManager notificationManager;
+    protected int registrationIndex;
+    // dense ID given by the database, NO_ID while not in it
+    protected int id;
+    // the number of search results and selections of users referencing the user entity
+    protected int searchReferences;
 
     public UserEntity(final String username, final Integer age, final String city) {
         this.username = username;
+        usernameKey = username == null ? null : username.toLowerCase();
         this.age = age;
         this.city = city;
         notificationManager = new NotificationManager();
+        searchReferences = 0;
+        id = IdRegistry.NO_ID;
     }
 
     /**
@@ -29,6 +40,16 @@ public abstract class UserEntity {
      */
     public void setUsername(final String username) {
         this.username = username;
+        usernameKey = username == null ? null : username.toLowerCase();
+    }
+
+    /**
+     * Retrieves the lowercase username of the user entity.
+     *
+     * @return The lowercase username.
+     */
+    public String getUsernameKey() {
+        return usernameKey;
     }
 
     /**
@@ -54,6 +75,59 @@ public abstract class UserEntity {
      */
     public abstract String getType();
 
+    /**
+     * Retrieves the order in which the user entity was added to the database.
+     *
+     * @return The registration index.
+     */
+    public int getRegistrationIndex() {
+        return registrationIndex;
+    }
+
+    /**
+     *
+     * @param registrationIndex
+     */
+    public void setRegistrationIndex(final int registrationIndex) {
+        this.registrationIndex = registrationIndex;
+    }
+
+    /**
+     * Retrieves the ID of the user entity, among the user entities of the database.
+     *
+     * @return The ID, or NO_ID if the user entity isn't in the database.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the user entity.
+     *
+     * @param id The ID given by the database.
+     */
+    public void setId(final int id) {
+        this.id = id;
+    }
+
+    /**
+     * Checks if the user entity is among the search results of a user, or selected by one.
+     *
+     * @return true if a search bar references the user entity, false otherwise.
+     */
+    public boolean isSearched() {
+        return searchReferences > 0;
+    }
+
+    /**
+     * Changes the number of search results and selections referencing the user entity.
+     *
+     * @param delta The change of the number of references.
+     */
+    public void changeSearchReferences(final int delta) {
+        searchReferences += delta;
+    }
+
     /**
      *
      * @return
@@ -1,11 +1,8 @@
 package userentities.artist;
 
 
-import audioentities.AudioEntity;
 import audioentities.audiocollections.Album;
-import audioentities.audiocollections.Playlist;
 import audioentities.audiofiles.Song;
-import audiovisitors.IsAlbumDeletableAudioVisitor;
 import database.Database;
 import fileio.input.SongInput;
 import ioparser.CommandInput;
@@ -175,11 +172,13 @@ public final class Artist extends UserEntity {
         }
 
         albums.add(newAlbum);
-        // add the album to the database
-        database.getAlbums().add(newAlbum);
-
-        // add all the songs in the album to the songs in database
-        database.getSongs().addAll(newAlbum.getSongs());
+        // link the album and its songs back to the artist
+        newAlbum.setOwningArtist(this);
+        for (Song song : newAlbum.getSongs()) {
+            song.setOwningAlbum(newAlbum);
+        }
+        // add the album and all of its songs to the database
+        database.addAlbum(newAlbum);
 
         // notify all subscribers
         notificationManager.notify("New Album from " + username + ".");
@@ -206,34 +205,19 @@ public final class Artist extends UserEntity {
             return username + " doesn't have an album with the given name.";
         }
 
-        for (User user : database.getNormalUsers()) {
-            AudioEntity currentPlaying = user.getPlayer().getCurrentPlaying();
-            if (currentPlaying != null) {
-                IsAlbumDeletableAudioVisitor isAlbumDeletableAudioVisitor =
-                        new IsAlbumDeletableAudioVisitor(currAlbum);
-               currentPlaying.acceptAudioVisitor(isAlbumDeletableAudioVisitor);
-
-               if (!isAlbumDeletableAudioVisitor.isDeletable()) {
-                   return  username + " can't delete this album.";
-               }
-            }
+        // if the album is loaded, or one of its songs is played, by a user
+        if (currAlbum.isInUse()) {
+            return  username + " can't delete this album.";
         }
 
-        //delete the album from the database
-        database.getAlbums().remove(currAlbum);
-
-        // delete the album
+        // delete the album's songs from the users' playlists and likedSongs,
+        // while the database still records them
         for (Song song : currAlbum.getSongs()) {
-            database.getSongs().remove(song);
-            // delete all artists' songs from all users' playlists
-            for (Playlist playlist : database.getPlaylists()) {
-                playlist.getSongs().remove(song);
-            }
-            // delete all artists' songs from all users' likedSongs
-            for (User user : database.getNormalUsers()) {
-                user.getLikedSongs().remove(song);
-            }
+            database.unlinkSong(song);
         }
+
+        //delete the album and all of its songs from the database
+        database.removeAlbum(currAlbum);
         albums.remove(currAlbum);
 
         return username + " deleted the album successfully.";
@@ -10,7 +10,7 @@ public final class ArtistFactory implements UserEntityFactory {
                                        final Integer age, final String city) {
         Database database = Database.getDatabase();
         Artist newArtist = new Artist(username, age, city);
-        database.getArtists().add(newArtist);
+        database.addArtist(newArtist);
         return newArtist;
     }
 }
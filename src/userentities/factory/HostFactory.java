@@ -11,11 +11,12 @@ public final class HostFactory implements UserEntityFactory {
                                        final Integer age, final String city) {
         Database database = Database.getDatabase();
         Host newHost = new Host(username, age, city);
-        database.getHosts().add(newHost);
+        database.addHost(newHost);
 
         for (Podcast podcast : database.getPodcasts()) {
             if (podcast.getOwner().compareTo(newHost.getUsername()) == 0) {
                 newHost.getPodcasts().add(podcast);
+                podcast.setOwningHost(newHost);
             }
         }
         return newHost;
@@ -1,6 +1,5 @@
 package userentities.factory;
 
-import audioentities.audiocollections.audioCollectionsStates.PodcastState;
 import database.Database;
 import userentities.UserEntity;
 import userentities.user.User;
@@ -10,10 +9,8 @@ public final class UserFactory implements UserEntityFactory {
     public UserEntity createUserEntity(final String username,
                                        final Integer age, final String city) {
         Database database = Database.getDatabase();
-        User newUser = new User(username, age, city);
-        database.getNormalUsers().add(newUser);
-        newUser.getPlayer().setPodcastsStates(PodcastState
-                .setDefaultPodcastsStates(database.getPodcasts()));
+        User newUser = new User(username, age, city, database);
+        database.addNormalUser(newUser);
         return newUser;
     }
 }
@@ -1,7 +1,6 @@
 package userentities.host;
 
 import audioentities.audiocollections.Podcast;
-import audioentities.audiocollections.audioCollectionsStates.PodcastState;
 import audioentities.audiofiles.Episode;
 import database.Database;
 import fileio.input.EpisodeInput;
@@ -97,15 +96,9 @@ public final class Host extends UserEntity {
         }
 
         podcasts.add(newPodcast);
+        newPodcast.setOwningHost(this);
         // add the podcast to the database
-        database.getPodcasts().add(newPodcast);
-
-        // add the default podcast state for all the users
-        for (User user : database.getNormalUsers()) {
-            PodcastState newPodcastState = new PodcastState(newPodcast,
-                    newPodcast.getEpisodes().get(0), newPodcast.getEpisodes().get(0).getDuration());
-            user.getPlayer().getPodcastsStates().add(newPodcastState);
-        }
+        database.addPodcast(newPodcast);
 
         // notify all subscribers
         notificationManager.notify("New Podcast from " + username + ".");
@@ -128,19 +121,8 @@ public final class Host extends UserEntity {
                     return username + " can't delete this podcast.";
                 }
 
-                // delete the podcast from the database
-                database.getPodcasts().remove(podcast);
-
-                // remove podcast states from all the users
-                for (User user : database.getNormalUsers()) {
-                    for (PodcastState podcastState : user.getPlayer().getPodcastsStates()) {
-                        if (podcastState.getPodcast() == podcast) {
-                            user.getPlayer().getPodcastsStates().remove(podcastState);
-                            break;
-                        }
-                    }
-
-                }
+                // delete the podcast and its states from the database
+                database.removePodcast(podcast);
 
                 podcasts.remove(podcast);
 
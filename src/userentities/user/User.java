@@ -22,6 +22,7 @@ import userentities.artist.artistinfo.Merch;
 import userentities.host.Host;
 import userentities.user.player.Player;
 import userentities.user.searchbar.SearchBar;
+import wrapped.ListenCounts;
 import wrapped.UserWrapped;
 
 import java.util.ArrayList;
@@ -42,7 +43,9 @@ public final class User extends UserEntity {
     private static final Integer MIN_ELAPSED_TIME = 30;
 
     private boolean isConnected = true;
-    private final Player player = new Player(this);
+    // the database of the run the user belongs to
+    private final Database database;
+    private final Player player;
     private final SearchBar searchBar = new SearchBar(this);
     private final ArrayList<Song> likedSongs;
     private final ArrayList<Playlist> playlists;
@@ -61,8 +64,11 @@ public final class User extends UserEntity {
     private final ArrayList<Playlist> recommendedPlaylists;
     private AudioEntity lastRecommended;
 
-    public User(final String username, final Integer age, final String city) {
+    public User(final String username, final Integer age, final String city,
+                final Database database) {
         super(username, age, city);
+        this.database = database;
+        player = new Player(this, database);
         playlists = new ArrayList<Playlist>();
         likedSongs = new ArrayList<Song>();
         followedPlaylists = new ArrayList<Playlist>();
@@ -182,7 +188,6 @@ public final class User extends UserEntity {
      * @return A message indicating the success or failure of the operation.
      */
     public String createPlaylist(final CommandInput createPlaylistInput) {
-        Database database = Database.getDatabase();
 
         String name = createPlaylistInput.getPlaylistName();
 
@@ -199,7 +204,7 @@ public final class User extends UserEntity {
         if (message.compareTo("Playlist created successfully.") == 0) {
             Playlist newPlaylist = new Playlist(name, username);
             playlists.add(newPlaylist);
-            database.getPlaylists().add(newPlaylist);
+            database.addPlaylist(newPlaylist);
         }
 
         return message;
@@ -234,11 +239,10 @@ public final class User extends UserEntity {
 
         Song currSong = addRemoveInPlaylistAudioVisitor.getCurrSong();
 
-        if (currPlaylist.getSongs().contains(currSong)) {
-            currPlaylist.getSongs().remove(currSong);
+        if (currPlaylist.removeSong(currSong)) {
             return "Successfully removed from playlist.";
         } else {
-            currPlaylist.getSongs().add(currSong);
+            currPlaylist.addSong(currSong);
             return "Successfully added to playlist.";
         }
     }
@@ -270,12 +274,14 @@ public final class User extends UserEntity {
         Song currSong = likeAudioVisitor.getCurrSong();
 
         if (likedSongs.contains(currSong)) {
-            currSong.setLikeCount(currSong.getLikeCount() - 1);
+            database.changeLikeCount(currSong, -1);
             likedSongs.remove(currSong);
+            database.removeSongLiker(currSong, this);
             return "Unlike registered successfully.";
         } else {
-            currSong.setLikeCount(currSong.getLikeCount() + 1);
+            database.changeLikeCount(currSong, 1);
             likedSongs.add(currSong);
+            database.addSongLiker(currSong, this);
             return "Like registered successfully.";
         }
     }
@@ -336,12 +342,12 @@ public final class User extends UserEntity {
 
         // if the playlist is already followed by the user, unfollow it
         if (followedPlaylists.contains(playlist)) {
-            playlist.setFollowers(playlist.getFollowers() - 1);
+            database.changeFollowers(playlist, -1);
             followedPlaylists.remove(playlist);
 
             return "Playlist unfollowed successfully.";
         } else {
-            playlist.setFollowers(playlist.getFollowers() + 1);
+            database.changeFollowers(playlist, 1);
             followedPlaylists.add(playlist);
 
             return "Playlist followed successfully.";
@@ -364,6 +370,7 @@ public final class User extends UserEntity {
             player.setPrevCommandTimestamp(timestamp);
         }
         isConnected = !isConnected;
+        database.updateOnlineUser(this);
         return username + " has changed status successfully.";
     }
 
@@ -409,25 +416,12 @@ public final class User extends UserEntity {
         } else if (nextPage.compareTo("Artist") == 0) {
             Artist currArtist = null;
 
-            for (Artist artist : Database.getDatabase().getArtists()) {
-                if (currArtist != null) {
-                    break;
-                }
-                for (Album album : artist.getAlbums()) {
-                    if (currArtist != null) {
-                        break;
-                    }
-                    if (player.getCurrentPlaying() == album) {
-                        currArtist = artist;
-                        break;
-                    }
-                    for (Song song : album.getSongs()) {
-                        if (player.getCurrentPlaying() == song) {
-                            currArtist = artist;
-                            break;
-                        }
-                    }
-                }
+            AudioEntity currentPlaying = player.getCurrentPlaying();
+            if (currentPlaying instanceof Album) {
+                currArtist = ((Album) currentPlaying).getOwningArtist();
+            } else if (currentPlaying instanceof Song
+                    && ((Song) currentPlaying).getOwningAlbum() != null) {
+                currArtist = ((Song) currentPlaying).getOwningAlbum().getOwningArtist();
             }
             this.getSearchBar().resetSearchBarUsers();
             currentPage = currArtist.getPage();
@@ -435,16 +429,8 @@ public final class User extends UserEntity {
         } else if (nextPage.compareTo("Host") == 0) {
             Host currHost = null;
 
-            for (Host host : Database.getDatabase().getHosts()) {
-                if (currHost != null) {
-                    break;
-                }
-                for (Podcast podcast : host.getPodcasts()) {
-                    if (player.getCurrentPlaying() == podcast) {
-                        currHost = host;
-                        break;
-                    }
-                }
+            if (player.getCurrentPlaying() instanceof Podcast) {
+                currHost = ((Podcast) player.getCurrentPlaying()).getOwningHost();
             }
             this.getSearchBar().resetSearchBarUsers();
             currentPage = currHost.getPage();
@@ -470,24 +456,18 @@ public final class User extends UserEntity {
      * @param price The price of an ad.
      */
     public void calculateFreeMoney(final Double price) {
-        Database database = Database.getDatabase();
         int totalSongs = 0;
         Hashtable<Artist, Integer> artistsFreeSongs = new Hashtable<>();
 
-        Enumeration<Song> songKeys = wrapped.getFreeSongDatabase().keys();
-        while (songKeys.hasMoreElements()) {
-            Song key = songKeys.nextElement();
-            totalSongs += wrapped.getFreeSongDatabase().get(key);
-
-            for (Artist artist : database.getArtists()) {
-                for (Album album : artist.getAlbums()) {
-                    if (album.getSongs().contains(key)) {
-                        artistsFreeSongs.merge(artist,
-                                wrapped.getFreeSongDatabase().get(key), Integer::sum);
-                        artist.getSongsCount().merge(key,
-                                wrapped.getFreeSongDatabase().get(key), Integer::sum);
-                    }
-                }
+        ListenCounts<Song> songListens = wrapped.getFreeSongDatabase();
+        for (Song key : songListens.keys()) {
+            int listens = songListens.get(key);
+            totalSongs += listens;
+
+            if (key.getOwningAlbum() != null) {
+                Artist artist = key.getOwningAlbum().getOwningArtist();
+                artistsFreeSongs.merge(artist, listens, Integer::sum);
+                artist.getSongsCount().merge(key, listens, Integer::sum);
             }
         }
 
@@ -521,24 +501,18 @@ public final class User extends UserEntity {
             return;
         }
 
-        Database database = Database.getDatabase();
         int totalSongs = 0;
         Hashtable<Artist, Integer> artistsPremiumSongs = new Hashtable<>();
 
-        Enumeration<Song> songKeys = wrapped.getPremiumSongDatabase().keys();
-        while (songKeys.hasMoreElements()) {
-            Song key = songKeys.nextElement();
-            totalSongs += wrapped.getPremiumSongDatabase().get(key);
-
-            for (Artist artist : database.getArtists()) {
-                for (Album album : artist.getAlbums()) {
-                    if (album.getSongs().contains(key)) {
-                        artistsPremiumSongs.merge(artist,
-                                wrapped.getPremiumSongDatabase().get(key), Integer::sum);
-                        artist.getSongsCount().merge(key,
-                                wrapped.getPremiumSongDatabase().get(key), Integer::sum);
-                    }
-                }
+        ListenCounts<Song> songListens = wrapped.getPremiumSongDatabase();
+        for (Song key : songListens.keys()) {
+            int listens = songListens.get(key);
+            totalSongs += listens;
+
+            if (key.getOwningAlbum() != null) {
+                Artist artist = key.getOwningAlbum().getOwningArtist();
+                artistsPremiumSongs.merge(artist, listens, Integer::sum);
+                artist.getSongsCount().merge(key, listens, Integer::sum);
             }
         }
 
@@ -573,7 +547,7 @@ public final class User extends UserEntity {
             return;
         }
         calculateFreeMoney(Double.valueOf(player.getAds().get(0)));
-        wrapped.getFreeSongDatabase().clear();
+        wrapped.clearFreeSongListens();
         player.getAds().remove(0);
     }
 
@@ -604,7 +578,7 @@ public final class User extends UserEntity {
             return username + " is not a premium user.";
         }
         calculatePremiumMoney();
-        wrapped.getPremiumSongDatabase().clear();
+        wrapped.clearPremiumSongListens();
         isPremium = false;
         return username + " cancelled the subscription successfully.";
     }
@@ -715,7 +689,6 @@ public final class User extends UserEntity {
      * @return A message indicating the success or failure of the recommendation.
      */
     public String recommendRandomSong() {
-        Database database = Database.getDatabase();
 
         GetSongAudioVisitor getSongAudioVisitor = new GetSongAudioVisitor(player);
         player.getCurrentPlaying().acceptAudioVisitor(getSongAudioVisitor);
@@ -844,10 +817,10 @@ public final class User extends UserEntity {
         topLikedSongs.sort(new Comparator<Song>() {
             @Override
             public int compare(final Song s1, final Song s2) {
-                if (s1.getLikeCount().compareTo(s2.getLikeCount()) == 0) {
+                if (s1.getLikeCount() == s2.getLikeCount()) {
                     return s1.getName().compareTo(s2.getName());
                 }
-                return s2.getLikeCount().compareTo(s1.getLikeCount());
+                return Integer.compare(s2.getLikeCount(), s1.getLikeCount());
             }
         });
         int minSize = Math.min(maxLen, topLikedSongs.size());
@@ -860,23 +833,13 @@ public final class User extends UserEntity {
      * @return A message indicating the success or failure of the recommendation.
      */
     public String recommendFansPlaylist() {
-        Database database = Database.getDatabase();
-
         GetSongAudioVisitor getSongAudioVisitor = new GetSongAudioVisitor(player);
         player.getCurrentPlaying().acceptAudioVisitor(getSongAudioVisitor);
 
         Song currSong = getSongAudioVisitor.getCurrSong();
         Artist currArtist = null;
-        for (Artist artist : database.getArtists()) {
-            if (currArtist != null) {
-                break;
-            }
-            for (Album album : artist.getAlbums()) {
-                if (album.getSongs().contains(currSong)) {
-                    currArtist = artist;
-                    break;
-                }
-            }
+        if (currSong != null && currSong.getOwningAlbum() != null) {
+            currArtist = currSong.getOwningAlbum().getOwningArtist();
         }
 
         ArrayList<Song> playlistSongs = new ArrayList<>();
@@ -894,6 +857,8 @@ public final class User extends UserEntity {
         }
 
         Playlist playlist = new Playlist(playlistName, username);
+        // the same song can be among the top songs of several fans
+        playlist.setMayRepeatSongs(true);
         playlist.getSongs().addAll(playlistSongs);
 
         recommendedPlaylists.add(playlist);
@@ -1,11 +1,16 @@
 package userentities.user.player;
 
 import audioentities.AudioEntity;
+import audioentities.audiocollections.AudioCollection;
 import audioentities.audiocollections.Podcast;
+import audioentities.audiocollections.SongOrder;
 import audioentities.audiocollections.audioCollectionsStates.PodcastState;
 import audioentities.audiofiles.Song;
+import database.Database;
+import database.IdRegistry;
 import audiovisitors.BackwardAudioVisitor;
 import audiovisitors.ForwardAudioVisitor;
+import audiovisitors.GetPlayedAudioVisitor;
 import audiovisitors.NextAudioVisitor;
 import audiovisitors.PrevAudioVisitor;
 import audiovisitors.LoadAudioVisitor;
@@ -18,35 +23,57 @@ import ioparser.CommandInput;
 import userentities.user.User;
 
 import java.util.ArrayList;
+import java.util.Hashtable;
 
 public final class Player {
     // constants
     public static final Integer MIN_SKIP = 90;
+    public static final Integer AD_DURATION = 10;
     private static final Integer MAX_REPEAT = 3;
 
     private AudioEntity currentPlaying;
-    private ArrayList<PodcastState> podcastsStates;
+    // states of the podcasts loaded by the player, created when first loaded
+    private final Hashtable<Podcast, PodcastState> podcastsStates;
     private boolean podcastPlaying;
     private Song playlistState;
     private Song albumState;
+    // the collection and the song counted as played by the player
+    private AudioCollection playedCollection;
+    private Song playedSong;
+    // positions of the playlist state, the album state and the current song
+    private final SongCursor playlistCursor;
+    private final SongCursor albumCursor;
+    private final SongCursor songCursor;
     private Integer prevCommandTimestamp;
     private Integer remainedTime;
     private Integer repeat;
     private Boolean shuffle;
+    // the collection shuffled by the player, with its songs and the seed of the shuffle
+    private AudioCollection shuffledCollection;
+    private SongOrder unshuffledOrder;
+    private Integer shuffleSeed;
+    // the shuffled songs, null until they are played
+    private SongOrder shuffledOrder;
     private Boolean paused;
     private final ArrayList<Integer> ads;
     private boolean adUpdate;
     private final User user;
+    // the database of the run the player belongs to
+    private final Database database;
 
-    public Player(final User user) {
+    public Player(final User user, final Database database) {
         resetPlayer();
         prevCommandTimestamp = 0;
 
-        podcastsStates = new ArrayList<PodcastState>();
+        podcastsStates = new Hashtable<>();
         podcastPlaying = false;
         playlistState = null;
         albumState = null;
+        playlistCursor = new SongCursor();
+        albumCursor = new SongCursor();
+        songCursor = new SongCursor();
         this.user = user;
+        this.database = database;
 
         ads = new ArrayList<>();
         adUpdate = false;
@@ -58,14 +85,47 @@ public final class Player {
 
     public void setCurrentPlaying(final AudioEntity currentPlaying) {
         this.currentPlaying = currentPlaying;
+        updatePlayed();
     }
 
-    public ArrayList<PodcastState> getPodcastsStates() {
-        return podcastsStates;
+    /**
+     * Retrieves the position of the currently playing song in the song library.
+     *
+     * @param songOrder The snapshot of the song library.
+     * @return The position of the currently playing song.
+     */
+    public int getCurrentSongPosition(final SongOrder songOrder) {
+        return songCursor.find(songOrder, (Song) currentPlaying);
+    }
+
+    /**
+     * Plays the song at a position in the song library.
+     *
+     * @param songOrder The snapshot of the song library.
+     * @param index The position of the song.
+     */
+    public void setCurrentPlaying(final SongOrder songOrder, final int index) {
+        currentPlaying = songCursor.moveTo(songOrder, index);
+        updatePlayed();
+    }
+
+    /**
+     * Removes the state of a podcast, once the podcast is removed.
+     *
+     * @param podcast The removed podcast.
+     */
+    public void removePodcastState(final Podcast podcast) {
+        podcastsStates.remove(podcast);
     }
 
-    public void setPodcastsStates(final ArrayList<PodcastState> podcastsStates) {
-        this.podcastsStates = podcastsStates;
+    /**
+     * Removes the states of all the podcasts, once the user is deleted.
+     */
+    public void clearPodcastsStates() {
+        for (Podcast podcast : podcastsStates.keySet()) {
+            podcast.getListeners().remove(this);
+        }
+        podcastsStates.clear();
     }
 
     public Song getPlaylistState() {
@@ -74,6 +134,28 @@ public final class Player {
 
     public void setPlaylistState(final Song playlistState) {
         this.playlistState = playlistState;
+        updatePlayed();
+    }
+
+    /**
+     * Retrieves the position of the playlist state in the playing order of the playlist.
+     *
+     * @param songOrder The playing order of the playlist.
+     * @return The position of the playlist state.
+     */
+    public int getPlaylistPosition(final SongOrder songOrder) {
+        return playlistCursor.find(songOrder, playlistState);
+    }
+
+    /**
+     * Sets the playlist state to the song at a position in the playing order of the playlist.
+     *
+     * @param songOrder The playing order of the playlist.
+     * @param index The position of the song.
+     */
+    public void setPlaylistState(final SongOrder songOrder, final int index) {
+        playlistState = playlistCursor.moveTo(songOrder, index);
+        updatePlayed();
     }
 
     public Song getAlbumState() {
@@ -82,6 +164,28 @@ public final class Player {
 
     public void setAlbumState(final Song albumState) {
         this.albumState = albumState;
+        updatePlayed();
+    }
+
+    /**
+     * Retrieves the position of the album state in the playing order of the album.
+     *
+     * @param songOrder The playing order of the album.
+     * @return The position of the album state.
+     */
+    public int getAlbumPosition(final SongOrder songOrder) {
+        return albumCursor.find(songOrder, albumState);
+    }
+
+    /**
+     * Sets the album state to the song at a position in the playing order of the album.
+     *
+     * @param songOrder The playing order of the album.
+     * @param index The position of the song.
+     */
+    public void setAlbumState(final SongOrder songOrder, final int index) {
+        albumState = albumCursor.moveTo(songOrder, index);
+        updatePlayed();
     }
 
     public Integer getPrevCommandTimestamp() {
@@ -116,6 +220,47 @@ public final class Player {
         this.shuffle = shuffle;
     }
 
+    /**
+     * Turns on the shuffle mode for the songs of a collection.
+     * The songs are shuffled only once they are played.
+     *
+     * @param collection The shuffled collection.
+     * @param songsOrder The snapshot of the songs of the collection.
+     * @param seed The seed of the shuffle.
+     */
+    public void shuffleSongs(final AudioCollection collection, final SongOrder songsOrder,
+                             final Integer seed) {
+        shuffle = true;
+        shuffledCollection = collection;
+        unshuffledOrder = songsOrder;
+        shuffleSeed = seed;
+        shuffledOrder = null;
+    }
+
+    /**
+     * Retrieves the songs of a collection in the order they are played.
+     * A collection loaded while the shuffle mode is on is shuffled with the same seed.
+     *
+     * @param collection The collection in the player.
+     * @param songsOrder The snapshot of the songs of the collection.
+     * @return The shuffled songs if the shuffle mode is on, otherwise the given snapshot.
+     */
+    public SongOrder getPlayingOrder(final AudioCollection collection,
+                                     final SongOrder songsOrder) {
+        if (!shuffle) {
+            return songsOrder;
+        }
+        if (collection != shuffledCollection) {
+            shuffledCollection = collection;
+            unshuffledOrder = songsOrder;
+            shuffledOrder = null;
+        }
+        if (shuffledOrder == null) {
+            shuffledOrder = unshuffledOrder.shuffle(shuffleSeed);
+        }
+        return shuffledOrder;
+    }
+
     public Boolean getPaused() {
         return paused;
     }
@@ -150,17 +295,79 @@ public final class Player {
 
     /**
      * Gets the state of the currently playing podcast.
+     * A podcast that wasn't loaded before starts from the default state.
+     * A podcast removed from the database has no state, and none is created for it.
      *
      * @param podcast The podcast for which to retrieve state.
-     * @return The state of the specified podcast.
+     * @return The state of the specified podcast, or null if it was removed.
      */
     public PodcastState getPlayingPodcastState(final Podcast podcast) {
-        for (PodcastState podcastState : podcastsStates) {
-            if (podcastState.getPodcast() == podcast) {
-                return podcastState;
+        PodcastState podcastState = podcastsStates.get(podcast);
+        if (podcastState == null && podcast.getId() != IdRegistry.NO_ID) {
+            podcastState = PodcastState.createDefaultPodcastState(podcast);
+            podcastsStates.put(podcast, podcastState);
+            podcast.getListeners().add(this);
+        }
+        return podcastState;
+    }
+
+    /**
+     * Checks if the player advances with time, meaning its user is online
+     * and an unpaused source is loaded.
+     *
+     * @return True if the player is running, otherwise false.
+     */
+    public boolean isRunning() {
+        return user.isConnected() && currentPlaying != null && !paused;
+    }
+
+    /**
+     * Computes the timestamp at which the player reaches the end of the current track
+     * or of the current ad. Until then, updating the player only consumes the remained time,
+     * so the update can be postponed without changing its outcome.
+     *
+     * @return The timestamp of the player's next event.
+     */
+    public Integer getNextEventTimestamp() {
+        int nextEventTimestamp = prevCommandTimestamp + remainedTime;
+        if (adUpdate) {
+            nextEventTimestamp = Math.min(nextEventTimestamp, prevCommandTimestamp + AD_DURATION);
+        }
+        return nextEventTimestamp;
+    }
+
+    /**
+     * Updates the counts of players of the collection and of the song the player plays,
+     * after the loaded source or the current song changed.
+     */
+    private void updatePlayed() {
+        AudioCollection collection = null;
+        Song song = null;
+        if (currentPlaying != null) {
+            GetPlayedAudioVisitor getPlayedAudioVisitor = new GetPlayedAudioVisitor(this);
+            currentPlaying.acceptAudioVisitor(getPlayedAudioVisitor);
+            collection = getPlayedAudioVisitor.getPlayedCollection();
+            song = getPlayedAudioVisitor.getPlayedSong();
+        }
+
+        if (collection != playedCollection) {
+            if (playedCollection != null) {
+                playedCollection.changeActivePlayers(-1);
+            }
+            if (collection != null) {
+                collection.changeActivePlayers(1);
+            }
+            playedCollection = collection;
+        }
+        if (song != playedSong) {
+            if (playedSong != null) {
+                playedSong.changeActivePlayers(-1);
+            }
+            if (song != null) {
+                song.changeActivePlayers(1);
             }
+            playedSong = song;
         }
-        return null;
     }
 
     /**
@@ -168,6 +375,7 @@ public final class Player {
      */
     public void resetPlayer() {
         currentPlaying = null;
+        updatePlayed();
         podcastPlaying = false;
         remainedTime = 0;
         paused = true;
@@ -225,6 +433,7 @@ public final class Player {
             currentPlaying.acceptAudioVisitor(resetCurrentPlayingAudioVisitor);
         }
         currentPlaying = user.getSearchBar().getSelectedAudio();
+        updatePlayed();
 
         user.getSearchBar().resetSearchBarAudio();
 
@@ -392,7 +601,7 @@ public final class Player {
             paused = false;
         }
 
-        NextAudioVisitor nextAudioVisitor = new NextAudioVisitor(this, timestamp);
+        NextAudioVisitor nextAudioVisitor = new NextAudioVisitor(this, database, timestamp);
         currentPlaying.acceptAudioVisitor(nextAudioVisitor);
 
         return nextAudioVisitor.getMessage();
@@ -418,7 +627,7 @@ public final class Player {
             paused = false;
         }
 
-        PrevAudioVisitor prevAudioVisitor = new PrevAudioVisitor(this);
+        PrevAudioVisitor prevAudioVisitor = new PrevAudioVisitor(this, database);
         currentPlaying.acceptAudioVisitor(prevAudioVisitor);
 
         return prevAudioVisitor.getMessage();
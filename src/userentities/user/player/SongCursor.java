@@ -0,0 +1,63 @@
+package userentities.user.player;
+
+import audioentities.audiocollections.SongOrder;
+import audioentities.audiofiles.Song;
+
+/**
+ * Position of the song a player is at, in a snapshot of the songs it plays.
+ * The position is the one a search for the song in the list would find.
+ * When only the order of the same songs changed, the position is carried through
+ * the permutation, and when the list of songs changed, the song is searched for
+ * near its old position, so the whole list is scanned only for a different song.
+ */
+public final class SongCursor {
+    private SongOrder order;
+    private Song song;
+    private int position;
+
+    public SongCursor() {
+        order = null;
+        song = null;
+        position = -1;
+    }
+
+    /**
+     * Finds the position of a song in a snapshot of songs.
+     *
+     * @param songOrder The snapshot of the songs.
+     * @param currSong The song to be found.
+     * @return The position of the first occurrence of the song, or -1 if it is missing.
+     */
+    public int find(final SongOrder songOrder, final Song currSong) {
+        if (order == songOrder && song == currSong) {
+            return position;
+        }
+
+        if (song != currSong || position < 0) {
+            position = songOrder.indexOf(currSong);
+        } else if (order.getBase() == songOrder.getBase()) {
+            // the same songs in another order
+            position = songOrder.getFirstPosition(
+                    songOrder.fromBaseIndex(order.toBaseIndex(position)));
+        } else {
+            position = songOrder.indexOfNear(currSong, order.toBaseIndex(position));
+        }
+        order = songOrder;
+        song = currSong;
+        return position;
+    }
+
+    /**
+     * Moves the cursor to a position in a snapshot of songs.
+     *
+     * @param songOrder The snapshot of the songs.
+     * @param index The position of the song.
+     * @return The song at the given position.
+     */
+    public Song moveTo(final SongOrder songOrder, final int index) {
+        order = songOrder;
+        song = songOrder.getSong(index);
+        position = songOrder.getFirstPosition(index);
+        return song;
+    }
+}
@@ -12,6 +12,9 @@ import userentities.UserEntity;
 import userentities.artist.Artist;
 import userentities.host.Host;
 import userentities.user.User;
+import userentities.user.searchbar.filters.Filters;
+import userentities.user.searchbar.index.SearchIndex;
+import userentities.user.searchbar.index.SearchQuery;
 
 import java.util.ArrayList;
 
@@ -42,6 +45,30 @@ public final class SearchBar {
         return selectedUser;
     }
 
+    private void setFoundUsers(final ArrayList<UserEntity> foundUsers) {
+        if (this.foundUsers != null) {
+            for (UserEntity userEntity : this.foundUsers) {
+                userEntity.changeSearchReferences(-1);
+            }
+        }
+        this.foundUsers = foundUsers;
+        if (foundUsers != null) {
+            for (UserEntity userEntity : foundUsers) {
+                userEntity.changeSearchReferences(1);
+            }
+        }
+    }
+
+    private void setSelectedUser(final UserEntity selectedUser) {
+        if (this.selectedUser != null) {
+            this.selectedUser.changeSearchReferences(-1);
+        }
+        this.selectedUser = selectedUser;
+        if (selectedUser != null) {
+            selectedUser.changeSearchReferences(1);
+        }
+    }
+
     /**
      * Resets the search bar by clearing foundAudio and selectedAudio items.
      */
@@ -56,14 +83,113 @@ public final class SearchBar {
      * This method sets both foundUsers and selectedUser to null.
      */
     public void resetSearchBarUsers() {
-        foundUsers = null;
-        selectedUser = null;
+        setFoundUsers(null);
+        setSelectedUser(null);
+    }
+
+
+    private Iterable<Song> findSongCandidates(final Filters filters) {
+        SearchQuery<Song> query = Database.getDatabase().getSongIndex().query();
+
+        if (filters.getName() != null) {
+            query.restrictToPrefix(filters.getName().toLowerCase());
+        }
+        if (filters.getAlbum() != null) {
+            query.restrictToKey(SearchIndex.ALBUM, filters.getAlbum().toLowerCase());
+        }
+        if (filters.getTags() != null) {
+            for (String searchedTag : filters.getTags()) {
+                query.restrictToKey(SearchIndex.TAGS, searchedTag);
+            }
+        }
+        if (filters.getLyrics() != null) {
+            query.restrictToSubstring(filters.getLyrics().toLowerCase());
+        }
+        if (filters.getGenre() != null) {
+            query.restrictToKey(SearchIndex.GENRE, SearchIndex.foldCase(filters.getGenre()));
+        }
+        if (filters.getReleaseYear() != null) {
+            query.restrictToReleaseYear(filters.getReleaseYear());
+        }
+        if (filters.getArtist() != null) {
+            query.restrictToKey(SearchIndex.ARTIST, SearchIndex.foldCase(filters.getArtist()));
+        }
+
+        return query.getCandidates(Database.MAX_LEN);
+    }
+
+    private Iterable<Podcast> findPodcastCandidates(final Filters filters) {
+        SearchQuery<Podcast> query = Database.getDatabase().getPodcastIndex().query();
+
+        if (filters.getName() != null) {
+            query.restrictToPrefix(filters.getName().toLowerCase());
+        }
+        if (filters.getOwner() != null) {
+            query.restrictToKey(SearchIndex.OWNER, SearchIndex.foldCase(filters.getOwner()));
+        }
+
+        return query.getCandidates(Database.MAX_LEN);
     }
 
+    private Iterable<Playlist> findPlaylistCandidates(final Filters filters) {
+        SearchQuery<Playlist> query = Database.getDatabase().getPlaylistIndex().query();
+
+        if (filters.getName() != null) {
+            query.restrictToPrefix(filters.getName().toLowerCase());
+        }
+        if (filters.getOwner() != null) {
+            query.restrictToKey(SearchIndex.OWNER, filters.getOwner().toLowerCase());
+        }
+
+        // the user's own playlists come first, so all the candidates are needed
+        return query.getCandidates(Integer.MAX_VALUE);
+    }
+
+    private Iterable<Album> findAlbumCandidates(final Filters filters) {
+        SearchQuery<Album> query = Database.getDatabase().getAlbumIndex().query();
+
+        if (filters.getName() != null) {
+            query.restrictToPrefix(filters.getName().toLowerCase());
+        }
+        if (filters.getOwner() != null) {
+            query.restrictToKey(SearchIndex.OWNER, SearchIndex.foldCase(filters.getOwner()));
+        }
+
+        return query.getCandidates(Database.MAX_LEN);
+    }
 
     private ArrayList<AudioEntity> searchSong(final CommandInput searchInput,
-                                              final ArrayList<Song> songs) {
+                                              final Iterable<Song> songs) {
         ArrayList<AudioEntity> foundSongs = new ArrayList<AudioEntity>();
+        Filters filters = searchInput.getFilters();
+
+        // normalize the searched values once, the songs already have normalized keys
+        String searchedName = null;
+        if (filters.getName() != null) {
+            searchedName = filters.getName().toLowerCase();
+        }
+        String searchedAlbum = null;
+        if (filters.getAlbum() != null) {
+            searchedAlbum = filters.getAlbum().toLowerCase();
+        }
+        String searchedLyrics = null;
+        if (filters.getLyrics() != null) {
+            searchedLyrics = filters.getLyrics().toLowerCase();
+        }
+        String searchedGenre = null;
+        if (filters.getGenre() != null) {
+            searchedGenre = SearchIndex.foldCase(filters.getGenre());
+        }
+        String searchedArtist = null;
+        if (filters.getArtist() != null) {
+            searchedArtist = SearchIndex.foldCase(filters.getArtist());
+        }
+        char releaseYearOperator = '<';
+        int searchedReleaseYear = 0;
+        if (filters.getReleaseYear() != null) {
+            releaseYearOperator = filters.getReleaseYear().charAt(0);
+            searchedReleaseYear = Integer.parseInt(filters.getReleaseYear().substring(1));
+        }
 
         for (Song song : songs) {
             if (foundSongs.size() == Database.MAX_LEN) {
@@ -73,29 +199,27 @@ public final class SearchBar {
             int foundFilters = 0;
             int nrFilters = 0;
 
-            if (searchInput.getFilters().getName() != null) {
+            if (searchedName != null) {
                 nrFilters++;
-                String searchedName = searchInput.getFilters().getName().toLowerCase();
 
-                if (song.getName().toLowerCase().startsWith(searchedName)) {
+                if (song.getNameKey().startsWith(searchedName)) {
                     foundFilters++;
                 }
 
             }
-            if (searchInput.getFilters().getAlbum() != null) {
+            if (searchedAlbum != null) {
                 nrFilters++;
-                String searchedAlbum = searchInput.getFilters().getAlbum().toLowerCase();
 
-                if (song.getAlbum().toLowerCase().compareTo(searchedAlbum) == 0) {
+                if (song.getAlbumKey().compareTo(searchedAlbum) == 0) {
                     foundFilters++;
                 }
 
             }
-            if (searchInput.getFilters().getTags() != null) {
+            if (filters.getTags() != null) {
                 nrFilters++;
                 boolean isValid = true;
 
-                for (String searchedTag : searchInput.getFilters().getTags()) {
+                for (String searchedTag : filters.getTags()) {
                     if (!song.getTags().contains(searchedTag)) {
                         isValid = false;
                         break;
@@ -107,48 +231,40 @@ public final class SearchBar {
                 }
 
             }
-            if (searchInput.getFilters().getLyrics() != null) {
+            if (searchedLyrics != null) {
                 nrFilters++;
-                String searchedLyrics = searchInput.getFilters().getLyrics();
 
-                if (song.getLyrics().toLowerCase().contains(searchedLyrics.toLowerCase())) {
+                if (song.getLyricsKey().contains(searchedLyrics)) {
                     foundFilters++;
                 }
 
             }
-            if (searchInput.getFilters().getGenre() != null) {
+            if (searchedGenre != null) {
                 nrFilters++;
-                String searchedGenre = searchInput.getFilters().getGenre();
 
-                if (song.getGenre().compareToIgnoreCase(searchedGenre) == 0) {
+                if (song.getGenreKey().compareTo(searchedGenre) == 0) {
                     foundFilters++;
                 }
 
             }
-            if (searchInput.getFilters().getReleaseYear() != null) {
+            if (filters.getReleaseYear() != null) {
                 nrFilters++;
-                String searchedReleaseYear = searchInput.getFilters().getReleaseYear();
-
-                char operator = searchedReleaseYear.charAt(0);
 
-                if (operator == '<') {
-                    if (song.getReleaseYear()
-                            < Integer.parseInt(searchedReleaseYear.substring(1))) {
+                if (releaseYearOperator == '<') {
+                    if (song.getReleaseYear() < searchedReleaseYear) {
                         foundFilters++;
                     }
                 } else {
-                    if (song.getReleaseYear()
-                            > Integer.parseInt(searchedReleaseYear.substring(1))) {
+                    if (song.getReleaseYear() > searchedReleaseYear) {
                         foundFilters++;
                     }
                 }
 
             }
-            if (searchInput.getFilters().getArtist() != null) {
+            if (searchedArtist != null) {
                 nrFilters++;
-                String searchedArtist = searchInput.getFilters().getArtist();
 
-                if (song.getArtist().compareToIgnoreCase(searchedArtist) == 0) {
+                if (song.getArtistKey().compareTo(searchedArtist) == 0) {
                     foundFilters++;
                 }
             }
@@ -162,8 +278,18 @@ public final class SearchBar {
     }
 
     private ArrayList<AudioEntity> searchPodcast(final CommandInput searchInput,
-                                                 final ArrayList<Podcast> podcasts) {
+                                                 final Iterable<Podcast> podcasts) {
         ArrayList<AudioEntity> foundPodcasts = new ArrayList<AudioEntity>();
+        Filters filters = searchInput.getFilters();
+
+        String searchedName = null;
+        if (filters.getName() != null) {
+            searchedName = filters.getName().toLowerCase();
+        }
+        String searchedOwner = null;
+        if (filters.getOwner() != null) {
+            searchedOwner = SearchIndex.foldCase(filters.getOwner());
+        }
 
         for (Podcast podcast : podcasts) {
             if (foundPodcasts.size() == Database.MAX_LEN) {
@@ -173,20 +299,18 @@ public final class SearchBar {
             int foundFilters = 0;
             int nrFilters = 0;
 
-            if (searchInput.getFilters().getName() != null) {
+            if (searchedName != null) {
                 nrFilters++;
-                String searchedName = searchInput.getFilters().getName().toLowerCase();
 
-                if (podcast.getName().toLowerCase().startsWith(searchedName)) {
+                if (podcast.getNameKey().startsWith(searchedName)) {
                     foundFilters++;
                 }
 
             }
-            if (searchInput.getFilters().getOwner() != null) {
+            if (searchedOwner != null) {
                 nrFilters++;
-                String searchedOwner = searchInput.getFilters().getOwner();
 
-                if (podcast.getOwner().compareToIgnoreCase(searchedOwner) == 0) {
+                if (podcast.getFoldedOwnerKey().compareTo(searchedOwner) == 0) {
                     foundFilters++;
                 }
             }
@@ -202,6 +326,16 @@ public final class SearchBar {
     private ArrayList<AudioEntity> searchPlaylist(final CommandInput searchInput,
                                                   final ArrayList<Playlist> playlists) {
         ArrayList<AudioEntity> foundPlaylists = new ArrayList<AudioEntity>();
+        Filters filters = searchInput.getFilters();
+
+        String searchedName = null;
+        if (filters.getName() != null) {
+            searchedName = filters.getName().toLowerCase();
+        }
+        String searchedOwner = null;
+        if (filters.getOwner() != null) {
+            searchedOwner = filters.getOwner().toLowerCase();
+        }
 
         for (Playlist playlist : playlists) {
             if (foundPlaylists.size() == Database.MAX_LEN) {
@@ -211,19 +345,17 @@ public final class SearchBar {
             int foundFilters = 0;
             int nrFilters = 0;
 
-            if (searchInput.getFilters().getName() != null) {
+            if (searchedName != null) {
                 nrFilters++;
-                String searchedName = searchInput.getFilters().getName().toLowerCase();
 
-                if (playlist.getName().toLowerCase().startsWith(searchedName)) {
+                if (playlist.getNameKey().startsWith(searchedName)) {
                     foundFilters++;
                 }
             }
-            if (searchInput.getFilters().getOwner() != null) {
+            if (searchedOwner != null) {
                 nrFilters++;
-                String searchedOwner = searchInput.getFilters().getOwner().toLowerCase();
 
-                if (playlist.getOwner().toLowerCase().compareTo(searchedOwner) == 0) {
+                if (playlist.getOwnerKey().compareTo(searchedOwner) == 0) {
                     foundFilters++;
                 }
             }
@@ -237,8 +369,22 @@ public final class SearchBar {
     }
 
     private ArrayList<AudioEntity> searchAlbums(final CommandInput searchInput,
-                                                final ArrayList<Album> albums) {
+                                                final Iterable<Album> albums) {
         ArrayList<AudioEntity> foundAlbums = new ArrayList<AudioEntity>();
+        Filters filters = searchInput.getFilters();
+
+        String searchedName = null;
+        if (filters.getName() != null) {
+            searchedName = filters.getName().toLowerCase();
+        }
+        String searchedOwner = null;
+        if (filters.getOwner() != null) {
+            searchedOwner = SearchIndex.foldCase(filters.getOwner());
+        }
+        String searchedDescription = null;
+        if (filters.getDescription() != null) {
+            searchedDescription = SearchIndex.foldCase(filters.getDescription());
+        }
 
         for (Album album : albums) {
             if (foundAlbums.size() == Database.MAX_LEN) {
@@ -248,26 +394,23 @@ public final class SearchBar {
             int foundFilters = 0;
             int nrFilters = 0;
 
-            if (searchInput.getFilters().getName() != null) {
+            if (searchedName != null) {
                 nrFilters++;
-                String searchedName = searchInput.getFilters().getName().toLowerCase();
 
-                if (album.getName().toLowerCase().startsWith(searchedName)) {
+                if (album.getNameKey().startsWith(searchedName)) {
                     foundFilters++;
                 }
             }
-            if (searchInput.getFilters().getOwner() != null) {
+            if (searchedOwner != null) {
                 nrFilters++;
-                String searchedOwner = searchInput.getFilters().getOwner();
 
-                if (album.getOwner().compareToIgnoreCase(searchedOwner) == 0) {
+                if (album.getFoldedOwnerKey().compareTo(searchedOwner) == 0) {
                     foundFilters++;
                 }
-                if (searchInput.getFilters().getDescription() != null) {
+                if (searchedDescription != null) {
                     nrFilters++;
-                    String searchedDescription = searchInput.getFilters().getDescription();
 
-                    if (album.getDescription().compareToIgnoreCase(searchedDescription) == 0) {
+                    if (album.getDescriptionKey().compareTo(searchedDescription) == 0) {
                         foundFilters++;
                     }
                 }
@@ -284,17 +427,18 @@ public final class SearchBar {
     private ArrayList<UserEntity> searchArtists(final CommandInput searchInput,
                                                 final ArrayList<Artist> artists) {
         ArrayList<UserEntity> foundArtists = new ArrayList<UserEntity>();
+        if (searchInput.getFilters().getName() == null) {
+            return foundArtists;
+        }
+        String searchedName = searchInput.getFilters().getName().toLowerCase();
+
         for (Artist artist : artists) {
             if (foundArtists.size() == Database.MAX_LEN) {
                 break;
             }
 
-            if (searchInput.getFilters().getName() != null) {
-                String searchedName = searchInput.getFilters().getName().toLowerCase();
-
-                if (artist.getUsername().toLowerCase().startsWith(searchedName)) {
-                    foundArtists.add(artist);
-                }
+            if (artist.getUsernameKey().startsWith(searchedName)) {
+                foundArtists.add(artist);
             }
         }
 
@@ -304,17 +448,18 @@ public final class SearchBar {
     private ArrayList<UserEntity> searchHosts(final CommandInput searchInput,
                                                            final ArrayList<Host> hosts) {
         ArrayList<UserEntity> foundHosts = new ArrayList<UserEntity>();
+        if (searchInput.getFilters().getName() == null) {
+            return foundHosts;
+        }
+        String searchedName = searchInput.getFilters().getName().toLowerCase();
+
         for (Host host : hosts) {
             if (foundHosts.size() == Database.MAX_LEN) {
                 break;
             }
 
-            if (searchInput.getFilters().getName() != null) {
-                String searchedName = searchInput.getFilters().getName().toLowerCase();
-
-                if (host.getUsername().toLowerCase().startsWith(searchedName)) {
-                    foundHosts.add(host);
-                }
+            if (host.getUsernameKey().startsWith(searchedName)) {
+                foundHosts.add(host);
             }
         }
 
@@ -336,7 +481,7 @@ public final class SearchBar {
         }
 
         foundAudio = null;
-        foundUsers = null;
+        setFoundUsers(null);
 
         // update the player
         user.getPlayer().updatePlayer(searchInput.getTimestamp());
@@ -344,14 +489,32 @@ public final class SearchBar {
         // whenever something gets searched, the player resets
         user.getPlayer().resetPlayer();
 
+        // the indexes narrow down the entities to check against all the filters
         if (searchInput.getType().compareTo("song") == 0) {
-            foundAudio = searchSong(searchInput, database.getSongs());
+            Iterable<Song> songs = findSongCandidates(searchInput.getFilters());
+            if (songs == null) {
+                songs = database.getSongs();
+            }
+            foundAudio = searchSong(searchInput, songs);
         } else if (searchInput.getType().compareTo("podcast") == 0) {
-            foundAudio = searchPodcast(searchInput, database.getPodcasts());
+            Iterable<Podcast> podcasts = findPodcastCandidates(searchInput.getFilters());
+            if (podcasts == null) {
+                podcasts = database.getPodcasts();
+            }
+            foundAudio = searchPodcast(searchInput, podcasts);
         } else if (searchInput.getType().compareTo("playlist") == 0) {
-            ArrayList<Playlist> accessibleUserPlaylists =
-                    new ArrayList<Playlist>(user.getPlaylists());
-            for (Playlist playlist : database.getPlaylists()) {
+            Iterable<Playlist> playlists = findPlaylistCandidates(searchInput.getFilters());
+            if (playlists == null) {
+                playlists = database.getPlaylists();
+            }
+            // the user's own playlists come first, in the order they were created
+            ArrayList<Playlist> accessibleUserPlaylists = new ArrayList<Playlist>();
+            for (Playlist playlist : playlists) {
+                if (playlist.getOwner().compareTo(user.getUsername()) == 0) {
+                    accessibleUserPlaylists.add(playlist);
+                }
+            }
+            for (Playlist playlist : playlists) {
                 // if playlist is not user's and is public, add playlist to accessible
                 if (playlist.getOwner().compareTo(user.getUsername()) != 0) {
                     if (playlist.getVisibility().compareTo("public") == 0) {
@@ -361,19 +524,23 @@ public final class SearchBar {
             }
             foundAudio = searchPlaylist(searchInput, accessibleUserPlaylists);
         } else if (searchInput.getType().compareTo("album") == 0) {
-            ArrayList<Album> sortedAlbums = new ArrayList<>();
-            for (Artist artist : database.getArtists()) {
-                for (Album album : artist.getAlbums()) {
-                    sortedAlbums.add(album);
+            Iterable<Album> sortedAlbums = findAlbumCandidates(searchInput.getFilters());
+            if (sortedAlbums == null) {
+                ArrayList<Album> artistsAlbums = new ArrayList<>();
+                for (Artist artist : database.getArtists()) {
+                    for (Album album : artist.getAlbums()) {
+                        artistsAlbums.add(album);
+                    }
                 }
+                sortedAlbums = artistsAlbums;
             }
             foundAudio = searchAlbums(searchInput, sortedAlbums);
         } else if (searchInput.getType().compareTo("artist") == 0) {
             ArrayList<Artist> artists = database.getArtists();
-            foundUsers = searchArtists(searchInput, artists);
+            setFoundUsers(searchArtists(searchInput, artists));
         } else {
             ArrayList<Host> hosts = database.getHosts();
-            foundUsers = searchHosts(searchInput, hosts);
+            setFoundUsers(searchHosts(searchInput, hosts));
         }
 
         return null;
@@ -389,7 +556,7 @@ public final class SearchBar {
     public String select(final CommandInput selectInput) {
         if (foundAudio == null && foundUsers == null) {
             selectedAudio = null;
-            selectedUser = null;
+            setSelectedUser(null);
             return "Please conduct a search before making a selection.";
         }
 
@@ -409,11 +576,11 @@ public final class SearchBar {
 
         // if found users
         if (selectInput.getItemNumber() > foundUsers.size()) {
-            selectedUser = null;
+            setSelectedUser(null);
             return "The selected ID is too high.";
         } else {
-            selectedUser = foundUsers.get(selectInput.getItemNumber() - 1);
-            foundUsers = null;
+            setSelectedUser(foundUsers.get(selectInput.getItemNumber() - 1));
+            setFoundUsers(null);
             String selectedName = selectedUser.getUsername();
 
             // change the user's page to what was selected
@@ -0,0 +1,128 @@
+package userentities.user.searchbar.index;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+
+/**
+ * Prefix tree over the lowercase names of the indexed entities.
+ * Every node keeps the number of entities in its subtree,
+ * so the number of prefix matches is known without collecting them.
+ *
+ * @param <T> The type of the indexed entities.
+ */
+final class NameTrie<T> {
+    private final Node<T> root;
+
+    private static final class Node<T> {
+        private final Hashtable<Character, Node<T>> children;
+        // the same children, walked by index when collecting
+        private final ArrayList<Node<T>> childList;
+        private final ArrayList<T> entities;
+        private int size;
+
+        Node() {
+            children = new Hashtable<>();
+            childList = new ArrayList<>();
+            entities = new ArrayList<>();
+            size = 0;
+        }
+    }
+
+    NameTrie() {
+        root = new Node<>();
+    }
+
+    /**
+     * Adds an entity under the given key.
+     *
+     * @param key The lowercase name of the entity.
+     * @param entity The entity to be added.
+     */
+    void add(final String key, final T entity) {
+        Node<T> node = root;
+        node.size++;
+        for (int i = 0; i < key.length(); ++i) {
+            Node<T> child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node<>();
+                node.children.put(key.charAt(i), child);
+                node.childList.add(child);
+            }
+            node = child;
+            node.size++;
+        }
+        node.entities.add(entity);
+    }
+
+    /**
+     * Removes an entity from under the given key, pruning the emptied nodes.
+     *
+     * @param key The lowercase name of the entity.
+     * @param entity The entity to be removed.
+     */
+    void remove(final String key, final T entity) {
+        ArrayList<Node<T>> path = new ArrayList<>();
+        Node<T> node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); ++i) {
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path.add(node);
+        }
+        if (!node.entities.remove(entity)) {
+            return;
+        }
+
+        for (int i = path.size() - 1; i >= 0; --i) {
+            Node<T> curr = path.get(i);
+            curr.size--;
+            if (i > 0 && curr.size == 0) {
+                path.get(i - 1).children.remove(key.charAt(i - 1));
+                path.get(i - 1).childList.remove(curr);
+            }
+        }
+    }
+
+    /**
+     * Counts the entities whose key starts with the given prefix.
+     *
+     * @param prefix The lowercase prefix.
+     * @return The number of matching entities.
+     */
+    int count(final String prefix) {
+        Node<T> node = find(prefix);
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Collects the entities whose key starts with the given prefix.
+     *
+     * @param prefix The lowercase prefix.
+     * @param found The list the matching entities are added to, in no particular order.
+     */
+    void collect(final String prefix, final ArrayList<T> found) {
+        Node<T> node = find(prefix);
+        if (node != null) {
+            collect(node, found);
+        }
+    }
+
+    private void collect(final Node<T> node, final ArrayList<T> found) {
+        for (int i = 0; i < node.entities.size(); ++i) {
+            found.add(node.entities.get(i));
+        }
+        for (int i = 0; i < node.childList.size(); ++i) {
+            collect(node.childList.get(i), found);
+        }
+    }
+
+    private Node<T> find(final String prefix) {
+        Node<T> node = root;
+        for (int i = 0; i < prefix.length() && node != null; ++i) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+}
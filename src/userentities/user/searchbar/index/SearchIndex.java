@@ -0,0 +1,266 @@
+package userentities.user.searchbar.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Search index over one catalog of the database.
+ * Keeps a prefix trie of the lowercase names, posting lists for exact-match fields,
+ * a trigram index for substring searches and the entities grouped by release year.
+ * Every entity also has a position, used to return the candidates
+ * in the same order as the catalog. While the entities are added in the order
+ * of their positions, the posting sets keep that order too.
+ * Adding or removing an entity only touches the sets of its own keys.
+ *
+ * @param <T> The type of the indexed entities.
+ */
+public final class SearchIndex<T> {
+    // constants
+    public static final String GENRE = "genre";
+    public static final String ARTIST = "artist";
+    public static final String ALBUM = "album";
+    public static final String TAGS = "tags";
+    public static final String OWNER = "owner";
+    private static final int GROUP_SHIFT = 32;
+
+    private final NameTrie<T> names;
+    private final TrigramIndex<T> texts;
+    private final Hashtable<String, Hashtable<String, LinkedHashSet<T>>> postings;
+    private final TreeMap<Integer, LinkedHashSet<T>> byReleaseYear;
+    private final LinkedHashMap<T, Long> positions;
+    private final Hashtable<T, String> nameKeys;
+    private final Hashtable<T, ArrayList<String[]>> entityKeys;
+    private final Hashtable<T, Integer> releaseYears;
+    private long addedEntities;
+    private long lastPosition;
+    private boolean ordered;
+    private final SearchQuery<T> query;
+
+    public SearchIndex() {
+        names = new NameTrie<>();
+        texts = new TrigramIndex<>();
+        postings = new Hashtable<>();
+        byReleaseYear = new TreeMap<>();
+        positions = new LinkedHashMap<>();
+        nameKeys = new Hashtable<>();
+        entityKeys = new Hashtable<>();
+        releaseYears = new Hashtable<>();
+        addedEntities = 0;
+        lastPosition = -1;
+        ordered = true;
+        query = new SearchQuery<>(this);
+    }
+
+    /**
+     * Folds a string so that two strings are equal ignoring case
+     * only if their folded forms are equal.
+     *
+     * @param value The string to be folded.
+     * @return The folded string, or the same string if folding doesn't change it.
+     */
+    public static String foldCase(final String value) {
+        int i = 0;
+        while (i < value.length()) {
+            int codePoint = value.codePointAt(i);
+            if (foldCase(codePoint) != codePoint) {
+                break;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (i == value.length()) {
+            return value;
+        }
+
+        StringBuilder folded = new StringBuilder(value.length());
+        folded.append(value, 0, i);
+        while (i < value.length()) {
+            int codePoint = value.codePointAt(i);
+            folded.appendCodePoint(foldCase(codePoint));
+            i += Character.charCount(codePoint);
+        }
+        return folded.toString();
+    }
+
+    private static int foldCase(final int codePoint) {
+        return Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+
+    /**
+     * Adds an entity after all the other entities.
+     *
+     * @param entity The entity to be added.
+     * @param nameKey The lowercase name of the entity.
+     */
+    public void add(final T entity, final String nameKey) {
+        add(entity, nameKey, 0);
+    }
+
+    /**
+     * Adds an entity after all the other entities of the same group,
+     * but before the entities of the following groups.
+     *
+     * @param entity The entity to be added.
+     * @param nameKey The lowercase name of the entity.
+     * @param group The group of the entity.
+     */
+    public void add(final T entity, final String nameKey, final int group) {
+        long position = ((long) group << GROUP_SHIFT) | addedEntities++;
+        ordered = ordered && position > lastPosition;
+        lastPosition = position;
+        positions.put(entity, position);
+        nameKeys.put(entity, nameKey);
+        names.add(nameKey, entity);
+        entityKeys.put(entity, new ArrayList<>());
+    }
+
+    /**
+     * Adds an already indexed entity to the posting list of a field's value.
+     *
+     * @param field The field of the entity.
+     * @param key The normalized value of the field.
+     * @param entity The entity to be added.
+     */
+    public void addKey(final String field, final String key, final T entity) {
+        if (key == null) {
+            return;
+        }
+        // a key repeated by the entity, such as a tag, is recorded only once
+        if (postings.computeIfAbsent(field, f -> new Hashtable<>())
+                .computeIfAbsent(key, k -> new LinkedHashSet<>()).add(entity)) {
+            entityKeys.get(entity).add(new String[] {field, key});
+        }
+    }
+
+    /**
+     * Adds the searchable text of an already indexed entity.
+     *
+     * @param entity The entity to be added.
+     * @param text The normalized text of the entity.
+     */
+    public void addText(final T entity, final String text) {
+        if (text == null) {
+            return;
+        }
+        texts.add(text, entity);
+    }
+
+    /**
+     * Adds an already indexed entity to the release year order.
+     *
+     * @param entity The entity to be added.
+     * @param releaseYear The release year of the entity.
+     */
+    public void addReleaseYear(final T entity, final int releaseYear) {
+        releaseYears.put(entity, releaseYear);
+        byReleaseYear.computeIfAbsent(releaseYear, y -> new LinkedHashSet<>()).add(entity);
+    }
+
+    /**
+     * Removes an entity and all of its keys from the index.
+     *
+     * @param entity The entity to be removed.
+     */
+    public void remove(final T entity) {
+        if (!positions.containsKey(entity)) {
+            return;
+        }
+        Integer releaseYear = releaseYears.remove(entity);
+        if (releaseYear != null) {
+            LinkedHashSet<T> yearSet = byReleaseYear.get(releaseYear);
+            yearSet.remove(entity);
+            if (yearSet.isEmpty()) {
+                byReleaseYear.remove(releaseYear);
+            }
+        }
+        positions.remove(entity);
+        names.remove(nameKeys.remove(entity), entity);
+        texts.remove(entity);
+
+        for (String[] entityKey : entityKeys.remove(entity)) {
+            Hashtable<String, LinkedHashSet<T>> fieldPostings = postings.get(entityKey[0]);
+            LinkedHashSet<T> postingSet = fieldPostings.get(entityKey[1]);
+            postingSet.remove(entity);
+            if (postingSet.isEmpty()) {
+                fieldPostings.remove(entityKey[1]);
+            }
+        }
+    }
+
+    /**
+     * Starts a new query over the index, reusing the query of the previous search.
+     *
+     * @return An unrestricted query.
+     */
+    public SearchQuery<T> query() {
+        return query.clear();
+    }
+
+    int size() {
+        return positions.size();
+    }
+
+    /**
+     * Checks if the entities were added in the order of their positions,
+     * so the posting sets and the entities are kept in the order of the catalog.
+     *
+     * @return true if the entities were added in order, false otherwise.
+     */
+    boolean isOrdered() {
+        return ordered;
+    }
+
+    Collection<T> getEntities() {
+        return positions.keySet();
+    }
+
+    long getPosition(final T entity) {
+        return positions.get(entity);
+    }
+
+    int countPrefix(final String prefix) {
+        return names.count(prefix);
+    }
+
+    void collectPrefix(final String prefix, final ArrayList<T> found) {
+        names.collect(prefix, found);
+    }
+
+    String getNameKey(final T entity) {
+        return nameKeys.get(entity);
+    }
+
+    Set<T> findTextCandidates(final String substring) {
+        return texts.findCandidates(substring);
+    }
+
+    String getText(final T entity) {
+        return texts.getText(entity);
+    }
+
+    Set<T> getPostingSet(final String field, final String key) {
+        Hashtable<String, LinkedHashSet<T>> fieldPostings = postings.get(field);
+        if (fieldPostings == null || !fieldPostings.containsKey(key)) {
+            return Collections.emptySet();
+        }
+        return fieldPostings.get(key);
+    }
+
+    Integer getReleaseYear(final T entity) {
+        return releaseYears.get(entity);
+    }
+
+    NavigableMap<Integer, LinkedHashSet<T>> getReleasedBefore(final int releaseYear) {
+        return byReleaseYear.headMap(releaseYear, false);
+    }
+
+    NavigableMap<Integer, LinkedHashSet<T>> getReleasedAfter(final int releaseYear) {
+        return byReleaseYear.tailMap(releaseYear, false);
+    }
+}
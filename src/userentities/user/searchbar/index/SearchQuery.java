@@ -0,0 +1,309 @@
+package userentities.user.searchbar.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Query over a SearchIndex. Every restriction is a superset of the entities
+ * matching one filter. The candidates are the entities of the smallest restriction
+ * that belong to all the other ones, so they are the intersection of the restrictions,
+ * found by going only through the smallest one.
+ * The candidates are walked lazily in the order of the catalog, so a search
+ * stops as soon as it has found enough of them: either the smallest restriction
+ * is already in that order, or it is small enough to be sorted, or else
+ * the whole catalog is walked in order and filtered by the restrictions.
+ * The candidates still have to be checked against all the filters.
+ * An index has a single query, reused by every search over it, so that searching
+ * allocates nothing for the query: its candidates have to be walked
+ * before the index is queried again.
+ *
+ * @param <T> The type of the indexed entities.
+ */
+public final class SearchQuery<T> implements Iterable<T> {
+    private final SearchIndex<T> index;
+    // the restrictions of the previous queries are kept to be reused
+    private final ArrayList<Restriction<T>> restrictions;
+    private int restrictionCount;
+    private final ArrayList<T> sortedCandidates;
+    private final Comparator<T> byPosition;
+    private final CandidateIterator candidates;
+    private Collection<T> source;
+
+    private enum Kind {
+        PREFIX, KEY, SUBSTRING, RELEASE_YEAR
+    }
+
+    /**
+     * Entities matching one filter: their number, or an estimate of it,
+     * whether they are listed in the order of the catalog
+     * and what is needed to list them and to check if an entity is one of them.
+     */
+    private static final class Restriction<T> {
+        private Kind kind;
+        private int size;
+        private boolean ordered;
+        // the prefix of the names or the substring of the texts
+        private String value;
+        // the posting set of a key or the text candidates of a substring
+        private Set<T> entities;
+        private NavigableMap<Integer, LinkedHashSet<T>> yearSets;
+        private char operator;
+        private int releaseYear;
+    }
+
+    /**
+     * Walks the entities of the source, skipping those that aren't candidates.
+     */
+    private final class CandidateIterator implements Iterator<T> {
+        private Iterator<T> entities;
+        private T next;
+
+        private CandidateIterator restart() {
+            entities = source.iterator();
+            next = null;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && entities.hasNext()) {
+                T entity = entities.next();
+                if (isCandidate(entity)) {
+                    next = entity;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T entity = next;
+            next = null;
+            return entity;
+        }
+    }
+
+    SearchQuery(final SearchIndex<T> index) {
+        this.index = index;
+        restrictions = new ArrayList<>();
+        restrictionCount = 0;
+        sortedCandidates = new ArrayList<>();
+        byPosition = Comparator.comparingLong(index::getPosition);
+        candidates = new CandidateIterator();
+        source = null;
+    }
+
+    /**
+     * Removes the restrictions of the previous query.
+     *
+     * @return The unrestricted query.
+     */
+    SearchQuery<T> clear() {
+        for (int i = 0; i < restrictionCount; ++i) {
+            Restriction<T> restriction = restrictions.get(i);
+            restriction.value = null;
+            restriction.entities = null;
+            restriction.yearSets = null;
+        }
+        restrictionCount = 0;
+        sortedCandidates.clear();
+        source = null;
+        return this;
+    }
+
+    private Restriction<T> addRestriction(final Kind kind, final int size,
+                                          final boolean ordered) {
+        if (restrictionCount == restrictions.size()) {
+            restrictions.add(new Restriction<>());
+        }
+        Restriction<T> restriction = restrictions.get(restrictionCount++);
+        restriction.kind = kind;
+        restriction.size = size;
+        restriction.ordered = ordered;
+        return restriction;
+    }
+
+    /**
+     * Restricts the query to the entities whose name starts with the given prefix.
+     *
+     * @param prefix The lowercase prefix of the name.
+     * @return The restricted query.
+     */
+    public SearchQuery<T> restrictToPrefix(final String prefix) {
+        addRestriction(Kind.PREFIX, index.countPrefix(prefix), false).value = prefix;
+        return this;
+    }
+
+    /**
+     * Restricts the query to the entities having the given value of a field.
+     *
+     * @param field The field of the entities.
+     * @param key The normalized value of the field.
+     * @return The restricted query.
+     */
+    public SearchQuery<T> restrictToKey(final String field, final String key) {
+        Set<T> postingSet = index.getPostingSet(field, key);
+        addRestriction(Kind.KEY, postingSet.size(), index.isOrdered()).entities = postingSet;
+        return this;
+    }
+
+    /**
+     * Restricts the query to the entities whose text contains the given string.
+     * Strings shorter than a trigram do not restrict the query.
+     *
+     * @param substring The normalized string.
+     * @return The restricted query.
+     */
+    public SearchQuery<T> restrictToSubstring(final String substring) {
+        if (substring.length() < TrigramIndex.GRAM_LEN) {
+            return this;
+        }
+        Set<T> textCandidates = index.findTextCandidates(substring);
+        Restriction<T> restriction = addRestriction(Kind.SUBSTRING, textCandidates.size(),
+                index.isOrdered());
+        restriction.value = substring;
+        restriction.entities = textCandidates;
+        return this;
+    }
+
+    /**
+     * Restricts the query to the entities matching a release year filter,
+     * such as "<2000" or ">2000".
+     *
+     * @param releaseYearFilter The release year filter.
+     * @return The restricted query.
+     */
+    public SearchQuery<T> restrictToReleaseYear(final String releaseYearFilter) {
+        char operator = releaseYearFilter.charAt(0);
+        int releaseYear = Integer.parseInt(releaseYearFilter.substring(1));
+
+        NavigableMap<Integer, LinkedHashSet<T>> yearSets;
+        if (operator == '<') {
+            yearSets = index.getReleasedBefore(releaseYear);
+        } else {
+            yearSets = index.getReleasedAfter(releaseYear);
+        }
+
+        int size = 0;
+        for (LinkedHashSet<T> yearSet : yearSets.values()) {
+            size += yearSet.size();
+        }
+        // the entities of several years are not in the order of the catalog
+        Restriction<T> restriction = addRestriction(Kind.RELEASE_YEAR, size,
+                index.isOrdered() && yearSets.size() == 1);
+        restriction.yearSets = yearSets;
+        restriction.operator = operator;
+        restriction.releaseYear = releaseYear;
+        return this;
+    }
+
+    /**
+     * Retrieves the candidates of the query, in the order of the catalog.
+     * They are found as they are walked, so walking only the first few of them
+     * costs only as much as finding those.
+     *
+     * @param limit The number of candidates the search needs.
+     * @return The candidates, or null if the query has no restriction.
+     */
+    public Iterable<T> getCandidates(final int limit) {
+        if (restrictionCount == 0) {
+            return null;
+        }
+
+        Restriction<T> smallest = restrictions.get(0);
+        for (int i = 1; i < restrictionCount; ++i) {
+            if (restrictions.get(i).size < smallest.size) {
+                smallest = restrictions.get(i);
+            }
+        }
+
+        if (smallest.size == 0) {
+            return Collections.emptyList();
+        }
+        if (smallest.ordered) {
+            source = smallest.kind == Kind.RELEASE_YEAR
+                    ? smallest.yearSets.firstEntry().getValue() : smallest.entities;
+            return this;
+        }
+        // sorting a broad restriction costs more than walking the catalog
+        // until enough of the entities are found, spread as they are through it
+        if (index.isOrdered() && (long) smallest.size * smallest.size
+                > (long) limit * index.size()) {
+            source = index.getEntities();
+            return this;
+        }
+
+        if (smallest.kind == Kind.PREFIX) {
+            index.collectPrefix(smallest.value, sortedCandidates);
+        } else if (smallest.kind == Kind.RELEASE_YEAR) {
+            for (LinkedHashSet<T> yearSet : smallest.yearSets.values()) {
+                sortedCandidates.addAll(yearSet);
+            }
+        } else {
+            sortedCandidates.addAll(smallest.entities);
+        }
+        // only the entities of all the restrictions are sorted
+        int kept = 0;
+        for (int i = 0; i < sortedCandidates.size(); ++i) {
+            T entity = sortedCandidates.get(i);
+            if (isCandidate(entity)) {
+                sortedCandidates.set(kept++, entity);
+            }
+        }
+        while (sortedCandidates.size() > kept) {
+            sortedCandidates.remove(sortedCandidates.size() - 1);
+        }
+        sortedCandidates.sort(byPosition);
+        source = sortedCandidates;
+        return this;
+    }
+
+    /**
+     * Walks the candidates again. Only one walk can be in progress at a time.
+     *
+     * @return The iterator over the candidates.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return candidates.restart();
+    }
+
+    private boolean isCandidate(final T entity) {
+        for (int i = 0; i < restrictionCount; ++i) {
+            if (!contains(restrictions.get(i), entity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean contains(final Restriction<T> restriction, final T entity) {
+        if (restriction.kind == Kind.PREFIX) {
+            return index.getNameKey(entity).startsWith(restriction.value);
+        }
+        if (restriction.kind == Kind.KEY) {
+            return restriction.entities.contains(entity);
+        }
+        if (restriction.kind == Kind.SUBSTRING) {
+            String text = index.getText(entity);
+            return text != null && text.contains(restriction.value);
+        }
+
+        Integer entityYear = index.getReleaseYear(entity);
+        if (entityYear == null) {
+            return false;
+        }
+        return restriction.operator == '<' ? entityYear < restriction.releaseYear
+                : entityYear > restriction.releaseYear;
+    }
+}
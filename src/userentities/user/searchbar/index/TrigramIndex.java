@@ -0,0 +1,100 @@
+package userentities.user.searchbar.index;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Index of the three-character substrings of a normalized text.
+ * A text containing a string also contains all of its trigrams,
+ * so the postings of any of them are a superset of the texts containing it.
+ * The postings keep the order in which the entities were added.
+ *
+ * @param <T> The type of the indexed entities.
+ */
+final class TrigramIndex<T> {
+    // constants
+    static final int GRAM_LEN = 3;
+
+    private final Hashtable<String, LinkedHashSet<T>> postings;
+    private final Hashtable<T, String> texts;
+
+    TrigramIndex() {
+        postings = new Hashtable<>();
+        texts = new Hashtable<>();
+    }
+
+    /**
+     * Adds the text of an entity.
+     *
+     * @param text The normalized text.
+     * @param entity The entity to be added.
+     */
+    void add(final String text, final T entity) {
+        texts.put(entity, text);
+        for (String trigram : trigrams(text)) {
+            postings.computeIfAbsent(trigram, t -> new LinkedHashSet<>()).add(entity);
+        }
+    }
+
+    /**
+     * Removes the text of an entity, if it has one.
+     *
+     * @param entity The entity to be removed.
+     */
+    void remove(final T entity) {
+        String text = texts.remove(entity);
+        if (text == null) {
+            return;
+        }
+        for (String trigram : trigrams(text)) {
+            LinkedHashSet<T> postingSet = postings.get(trigram);
+            postingSet.remove(entity);
+            if (postingSet.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the text of an entity.
+     *
+     * @param entity The indexed entity.
+     * @return The normalized text, or null if the entity has none.
+     */
+    String getText(final T entity) {
+        return texts.get(entity);
+    }
+
+    /**
+     * Finds the entities whose text may contain the given string,
+     * as the postings of its rarest trigram.
+     *
+     * @param substring The normalized string, at least GRAM_LEN characters long.
+     * @return The entities containing the rarest trigram of the string, in the order
+     * they were added, or none if one of its trigrams isn't in any text.
+     */
+    Set<T> findCandidates(final String substring) {
+        Set<T> rarest = null;
+        for (String trigram : trigrams(substring)) {
+            LinkedHashSet<T> postingSet = postings.get(trigram);
+            if (postingSet == null) {
+                return Collections.emptySet();
+            }
+            if (rarest == null || postingSet.size() < rarest.size()) {
+                rarest = postingSet;
+            }
+        }
+        return Collections.unmodifiableSet(rarest);
+    }
+
+    private static HashSet<String> trigrams(final String text) {
+        HashSet<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LEN <= text.length(); ++i) {
+            trigrams.add(text.substring(i, i + GRAM_LEN));
+        }
+        return trigrams;
+    }
+}
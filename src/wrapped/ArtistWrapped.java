@@ -5,33 +5,31 @@ import audioentities.audiofiles.Song;
 import userentities.user.User;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Comparator;
-import java.util.Enumeration;
 public final class ArtistWrapped extends Wrapped {
     // constants
     private static final Integer MAX_LEN = 5;
 
-    private final Hashtable<Song, Integer> mergedSongDatabase;
-    private final Hashtable<Album, Integer> mergedAlbumDatabase;
-    private final Hashtable<Album, Integer> albumDatabase;
+    private final ListenCounter<Song> mergedSongDatabase;
+    private final ListenCounter<Album> mergedAlbumDatabase;
+    private final ListenCounter<Album> albumDatabase;
     private List<Album> topAlbums;
-    private final Hashtable<Song, Integer> songDatabase;
+    private final ListenCounter<Song> songDatabase;
     private List<Song> topSongs;
-    private final Hashtable<User, Integer> fanDatabase;
+    private final ListenCounter<User> fanDatabase;
     private List<User> topFans;
     private Integer listeners;
 
     public ArtistWrapped() {
         super();
 
-        mergedSongDatabase = new Hashtable<>();
-        mergedAlbumDatabase = new Hashtable<>();
+        mergedSongDatabase = new ListenCounter<>();
+        mergedAlbumDatabase = new ListenCounter<>();
 
-        albumDatabase = new Hashtable<>();
-        songDatabase = new Hashtable<>();
-        fanDatabase = new Hashtable<>();
+        albumDatabase = new ListenCounter<>();
+        songDatabase = new ListenCounter<>();
+        fanDatabase = new ListenCounter<>();
 
         topAlbums = new ArrayList<>();
         topSongs = new ArrayList<>();
@@ -40,11 +38,11 @@ public final class ArtistWrapped extends Wrapped {
         listeners = 0;
     }
 
-    public Hashtable<Song, Integer> getMergedSongDatabase() {
+    public ListenCounts<Song> getMergedSongDatabase() {
         return mergedSongDatabase;
     }
 
-    public Hashtable<Album, Integer> getMergedAlbumDatabase() {
+    public ListenCounts<Album> getMergedAlbumDatabase() {
         return mergedAlbumDatabase;
     }
 
@@ -56,7 +54,7 @@ public final class ArtistWrapped extends Wrapped {
         return topSongs;
     }
 
-    public Hashtable<User, Integer> getFanDatabase() {
+    public ListenCounts<User> getFanDatabase() {
         return fanDatabase;
     }
 
@@ -84,40 +82,31 @@ public final class ArtistWrapped extends Wrapped {
      * Updates the number of listens for the specified album in the album database.
      *
      * @param album The album for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    public void updateAlbumListens(final Album album) {
-        if (albumDatabase.get(album) == null) {
-            albumDatabase.put(album, 1);
-        } else {
-            albumDatabase.put(album, albumDatabase.get(album) + 1);
-        }
+    public void updateAlbumListens(final Album album, final int count) {
+        albumDatabase.add(album, count);
     }
 
     /**
      * Updates the number of listens for the specified song in the song database.
      *
      * @param song The song for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    public void updateSongListens(final Song song) {
+    public void updateSongListens(final Song song, final int count) {
         empty = false;
-        if (songDatabase.get(song) == null) {
-            songDatabase.put(song, 1);
-        } else {
-            songDatabase.put(song, songDatabase.get(song) + 1);
-        }
+        songDatabase.add(song, count);
     }
 
     /**
      * Updates the number of listens for the specified fan in the fan database.
      *
      * @param user The fan for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    public void updateFanListens(final User user) {
-        if (fanDatabase.get(user) == null) {
-            fanDatabase.put(user, 1);
-        } else {
-            fanDatabase.put(user, fanDatabase.get(user) + 1);
-        }
+    public void updateFanListens(final User user, final int count) {
+        fanDatabase.add(user, count);
     }
 
     @Override
@@ -129,9 +118,7 @@ public final class ArtistWrapped extends Wrapped {
         mergedSongDatabase.clear();
 
         // getting top songs
-        Enumeration<Song> songKeys = songDatabase.keys();
-        while (songKeys.hasMoreElements()) {
-            Song key = songKeys.nextElement();
+        for (Song key : songDatabase.keys()) {
 
             boolean canAdd = true;
 
@@ -146,30 +133,27 @@ public final class ArtistWrapped extends Wrapped {
             if (canAdd) {
                 topSongs.add(key);
 
-                Integer songListens = songDatabase.get(key);
-
-                Enumeration<Song> keys = songDatabase.keys();
-                while (keys.hasMoreElements()) {
-                    Song key2 = keys.nextElement();
+                int songListens = songDatabase.get(key);
 
+                for (Song key2 : songDatabase.keys()) {
                     if (key2.getName().compareTo(key.getName()) == 0 && key2 != key) {
                         songListens += songDatabase.get(key2);
                     }
                 }
 
-                mergedSongDatabase.merge(key, songListens, Integer::sum);
+                mergedSongDatabase.add(key, songListens);
             }
         }
         topSongs.sort(new Comparator<Song>() {
             @Override
             public int compare(final Song s1, final Song s2) {
-                Integer firstSongListens = mergedSongDatabase.get(s1);
-                Integer secondSongListens = mergedSongDatabase.get(s2);
+                int firstSongListens = mergedSongDatabase.get(s1);
+                int secondSongListens = mergedSongDatabase.get(s2);
 
-                if (firstSongListens.compareTo(secondSongListens) == 0) {
+                if (firstSongListens == secondSongListens) {
                     return s1.getName().compareTo(s2.getName());
                 }
-                return secondSongListens.compareTo(firstSongListens);
+                return Integer.compare(secondSongListens, firstSongListens);
             }
         });
 
@@ -178,9 +162,7 @@ public final class ArtistWrapped extends Wrapped {
 
         mergedAlbumDatabase.clear();
         // getting top albums
-        Enumeration<Album> albumKeys = albumDatabase.keys();
-        while (albumKeys.hasMoreElements()) {
-            Album key = albumKeys.nextElement();
+        for (Album key : albumDatabase.keys()) {
 
             boolean canAdd = true;
 
@@ -194,27 +176,24 @@ public final class ArtistWrapped extends Wrapped {
             if (canAdd) {
                 topAlbums.add(key);
 
-                Integer albumListens = albumDatabase.get(key);
-
-                Enumeration<Album> keys = albumDatabase.keys();
-                while (keys.hasMoreElements()) {
-                    Album key2 = keys.nextElement();
+                int albumListens = albumDatabase.get(key);
 
+                for (Album key2 : albumDatabase.keys()) {
                     if (key2.getName().compareTo(key.getName()) == 0 && key2 != key) {
                         albumListens += albumDatabase.get(key2);
                     }
                 }
 
-                mergedAlbumDatabase.merge(key, albumListens, Integer::sum);
+                mergedAlbumDatabase.add(key, albumListens);
             }
         }
         topAlbums.sort(new Comparator<Album>() {
             @Override
             public int compare(final Album s1, final Album s2) {
-                if (mergedAlbumDatabase.get(s2).compareTo(mergedAlbumDatabase.get(s1)) == 0) {
+                if (mergedAlbumDatabase.get(s2) == mergedAlbumDatabase.get(s1)) {
                     return s1.getName().compareTo(s2.getName());
                 }
-                return mergedAlbumDatabase.get(s2).compareTo(mergedAlbumDatabase.get(s1));
+                return Integer.compare(mergedAlbumDatabase.get(s2), mergedAlbumDatabase.get(s1));
             }
         });
 
@@ -222,18 +201,14 @@ public final class ArtistWrapped extends Wrapped {
         topAlbums = topAlbums.subList(0, minSize);
 
         // getting top fans
-        Enumeration<User> fanKeys = fanDatabase.keys();
-        while (fanKeys.hasMoreElements()) {
-            User key = fanKeys.nextElement();
-            topFans.add(key);
-        }
+        topFans.addAll(fanDatabase.keys());
         topFans.sort(new Comparator<User>() {
             @Override
             public int compare(final User s1, final User s2) {
-                if (fanDatabase.get(s2).compareTo(fanDatabase.get(s1)) == 0) {
+                if (fanDatabase.get(s2) == fanDatabase.get(s1)) {
                     return s1.getUsername().compareTo(s2.getUsername());
                 }
-                return fanDatabase.get(s2).compareTo(fanDatabase.get(s1));
+                return Integer.compare(fanDatabase.get(s2), fanDatabase.get(s1));
             }
         });
 
@@ -4,23 +4,21 @@ import audioentities.audiofiles.Episode;
 import userentities.user.User;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Comparator;
-import java.util.Enumeration;
 
 public final class HostWrapped extends Wrapped {
     // constants
     private static final Integer MAX_LEN = 5;
-    private final Hashtable<Episode, Integer> episodeDatabase;
-    private final Hashtable<User, Integer> fanDatabase;
+    private final ListenCounter<Episode> episodeDatabase;
+    private final ListenCounter<User> fanDatabase;
     private List<Episode> topEpisodes;
     private Integer listeners;
     public HostWrapped() {
         super();
 
-        episodeDatabase = new Hashtable<>();
-        fanDatabase = new Hashtable<>();
+        episodeDatabase = new ListenCounter<>();
+        fanDatabase = new ListenCounter<>();
 
         topEpisodes = new ArrayList<>();
 
@@ -31,11 +29,11 @@ public final class HostWrapped extends Wrapped {
         return empty;
     }
 
-    public Hashtable<Episode, Integer> getEpisodeDatabase() {
+    public ListenCounts<Episode> getEpisodeDatabase() {
         return episodeDatabase;
     }
 
-    public Hashtable<User, Integer> getFanDatabase() {
+    public ListenCounts<User> getFanDatabase() {
         return fanDatabase;
     }
 
@@ -58,27 +56,21 @@ public final class HostWrapped extends Wrapped {
      * Updates the number of listens for the specified fan in the fan database.
      *
      * @param user The fan for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    public void updateFanListens(final User user) {
-        if (fanDatabase.get(user) == null) {
-            fanDatabase.put(user, 1);
-        } else {
-            fanDatabase.put(user, fanDatabase.get(user) + 1);
-        }
+    public void updateFanListens(final User user, final int count) {
+        fanDatabase.add(user, count);
     }
 
     /**
      * Updates the number of listens for the specified episode in the episode database.
      *
      * @param episode The episode for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    public void updateEpisodeListens(final Episode episode) {
+    public void updateEpisodeListens(final Episode episode, final int count) {
         empty = false;
-        if (episodeDatabase.get(episode) == null) {
-            episodeDatabase.put(episode, 1);
-        } else {
-            episodeDatabase.put(episode, episodeDatabase.get(episode) + 1);
-        }
+        episodeDatabase.add(episode, count);
     }
 
     @Override
@@ -86,18 +78,14 @@ public final class HostWrapped extends Wrapped {
         topEpisodes.clear();
 
         // getting top episodes
-        Enumeration<Episode> episodeKeys = episodeDatabase.keys();
-        while (episodeKeys.hasMoreElements()) {
-            Episode key = episodeKeys.nextElement();
-            topEpisodes.add(key);
-        }
+        topEpisodes.addAll(episodeDatabase.keys());
         topEpisodes.sort(new Comparator<Episode>() {
             @Override
             public int compare(final Episode s1, final Episode s2) {
-                if (episodeDatabase.get(s2).compareTo(episodeDatabase.get(s1)) == 0) {
+                if (episodeDatabase.get(s2) == episodeDatabase.get(s1)) {
                     return s1.getName().compareTo(s2.getName());
                 }
-                return episodeDatabase.get(s2).compareTo(episodeDatabase.get(s1));
+                return Integer.compare(episodeDatabase.get(s2), episodeDatabase.get(s1));
             }
         });
 
@@ -0,0 +1,112 @@
+package wrapped;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from entities to primitive int counts.
+ * The keys and counts are kept in dense arrays, in the order the keys were first counted,
+ * and the hash slots only store indexes into them, so counting never boxes.
+ * Entities that don't override equals are compared by identity.
+ *
+ * @param <K> The type of the counted entities.
+ */
+public final class ListenCounter<K> implements ListenCounts<K> {
+    // constants
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int EMPTY_SLOT = -1;
+
+    private Object[] keys;
+    private int[] counts;
+    private int[] slots;
+    private int size;
+
+    public ListenCounter() {
+        keys = new Object[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(slots, EMPTY_SLOT);
+        size = 0;
+    }
+
+    /**
+     * Adds an amount to the count of an entity.
+     *
+     * @param key The counted entity.
+     * @param amount The amount to be added.
+     */
+    public void add(final K key, final int amount) {
+        int slot = findSlot(key);
+        if (slots[slot] != EMPTY_SLOT) {
+            counts[slots[slot]] += amount;
+            return;
+        }
+
+        if (size == keys.length) {
+            grow();
+            slot = findSlot(key);
+        }
+        keys[size] = key;
+        counts[size] = amount;
+        slots[slot] = size;
+        size++;
+    }
+
+    /**
+     * Removes all the counts.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(slots, EMPTY_SLOT);
+        size = 0;
+    }
+
+    @Override
+    public int get(final K key) {
+        int index = slots[findSlot(key)];
+        return index == EMPTY_SLOT ? 0 : counts[index];
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        return slots[findSlot(key)] != EMPTY_SLOT;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ArrayList<K> keys() {
+        ArrayList<K> keyList = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            keyList.add((K) keys[i]);
+        }
+        return keyList;
+    }
+
+    /**
+     * Finds the slot holding the key, or the empty slot where it would be inserted.
+     */
+    private int findSlot(final Object key) {
+        int mask = slots.length - 1;
+        int hash = key.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (slots[slot] != EMPTY_SLOT && !keys[slots[slot]].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+        counts = Arrays.copyOf(counts, counts.length * 2);
+        slots = new int[keys.length * 2];
+        Arrays.fill(slots, EMPTY_SLOT);
+        for (int i = 0; i < size; ++i) {
+            slots[findSlot(keys[i])] = i;
+        }
+    }
+}
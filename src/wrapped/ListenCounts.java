@@ -0,0 +1,40 @@
+package wrapped;
+
+import java.util.ArrayList;
+
+/**
+ * Read-only view of listen counts.
+ *
+ * @param <K> The type of the counted entities.
+ */
+public interface ListenCounts<K> {
+    /**
+     * Retrieves the count of an entity.
+     *
+     * @param key The counted entity.
+     * @return The count of the entity, or 0 if it was never counted.
+     */
+    int get(K key);
+
+    /**
+     * Checks if an entity was counted.
+     *
+     * @param key The entity to check.
+     * @return True if the entity has a count, otherwise false.
+     */
+    boolean containsKey(K key);
+
+    /**
+     * Retrieves the number of counted entities.
+     *
+     * @return The number of counted entities.
+     */
+    int size();
+
+    /**
+     * Retrieves the counted entities, in the order they were first counted.
+     *
+     * @return A new list of the counted entities.
+     */
+    ArrayList<K> keys();
+}
@@ -4,52 +4,49 @@ import audioentities.audiocollections.Album;
 import audioentities.audiocollections.Podcast;
 import audioentities.audiofiles.Episode;
 import audioentities.audiofiles.Song;
-import database.Database;
 import userentities.artist.Artist;
 import userentities.host.Host;
 import userentities.user.User;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Comparator;
-import java.util.Enumeration;
 
 public final class UserWrapped extends Wrapped {
     // constants
     private static final Integer MAX_LEN = 5;
 
     private final User user;
-    private final Hashtable<Song, Integer> premiumSongDatabase;
-    private final Hashtable<Song, Integer> freeSongDatabase;
-    private final Hashtable<Song, Integer> mergedSongDatabase;
-    private final Hashtable<Song, Integer> songDatabase;
+    private final ListenCounter<Song> premiumSongDatabase;
+    private final ListenCounter<Song> freeSongDatabase;
+    private final ListenCounter<Song> mergedSongDatabase;
+    private final ListenCounter<Song> songDatabase;
     private List<Song> topSongs;
-    private final Hashtable<Episode, Integer> episodeDatabase;
+    private final ListenCounter<Episode> episodeDatabase;
     private List<Episode> topEpisodes;
-    private final Hashtable<Artist, Integer> artistDatabase;
+    private final ListenCounter<Artist> artistDatabase;
     private List<Artist> topArtists;
-    private final Hashtable<Album, Integer> mergedAlbumDatabase;
-    private final Hashtable<Album, Integer> albumDatabase;
+    private final ListenCounter<Album> mergedAlbumDatabase;
+    private final ListenCounter<Album> albumDatabase;
     private List<Album> topAlbums;
-    private final Hashtable<String, Integer> genreDatabase;
+    private final ListenCounter<String> genreDatabase;
     private List<String> topGenres;
 
     public UserWrapped(final User user) {
         super();
         this.user = user;
 
-        mergedSongDatabase = new Hashtable<>();
-        mergedAlbumDatabase = new Hashtable<>();
+        mergedSongDatabase = new ListenCounter<>();
+        mergedAlbumDatabase = new ListenCounter<>();
 
-        premiumSongDatabase = new Hashtable<>();
-        freeSongDatabase = new Hashtable<>();
+        premiumSongDatabase = new ListenCounter<>();
+        freeSongDatabase = new ListenCounter<>();
 
-        songDatabase = new Hashtable<>();
-        episodeDatabase = new Hashtable<>();
-        artistDatabase = new Hashtable<>();
-        albumDatabase = new Hashtable<>();
-        genreDatabase = new Hashtable<>();
+        songDatabase = new ListenCounter<>();
+        episodeDatabase = new ListenCounter<>();
+        artistDatabase = new ListenCounter<>();
+        albumDatabase = new ListenCounter<>();
+        genreDatabase = new ListenCounter<>();
 
         topArtists = new ArrayList<>();
         topAlbums = new ArrayList<>();
@@ -58,31 +55,31 @@ public final class UserWrapped extends Wrapped {
         topEpisodes = new ArrayList<>();
     }
 
-    public Hashtable<Album, Integer> getMergedAlbumDatabase() {
+    public ListenCounts<Album> getMergedAlbumDatabase() {
         return mergedAlbumDatabase;
     }
 
-    public Hashtable<Song, Integer> getMergedSongDatabase() {
+    public ListenCounts<Song> getMergedSongDatabase() {
         return mergedSongDatabase;
     }
 
-    public Hashtable<Song, Integer> getPremiumSongDatabase() {
+    public ListenCounts<Song> getPremiumSongDatabase() {
         return premiumSongDatabase;
     }
 
-    public Hashtable<Song, Integer> getFreeSongDatabase() {
+    public ListenCounts<Song> getFreeSongDatabase() {
         return freeSongDatabase;
     }
 
-    public Hashtable<Episode, Integer> getEpisodeDatabase() {
+    public ListenCounts<Episode> getEpisodeDatabase() {
         return episodeDatabase;
     }
 
-    public Hashtable<Artist, Integer> getArtistDatabase() {
+    public ListenCounts<Artist> getArtistDatabase() {
         return artistDatabase;
     }
 
-    public Hashtable<String, Integer> getGenreDatabase() {
+    public ListenCounts<String> getGenreDatabase() {
         return genreDatabase;
     }
 
@@ -114,39 +111,30 @@ public final class UserWrapped extends Wrapped {
      * Updates the number of listens for the specified album in the album database.
      *
      * @param album The album for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    private void updateAlbumListens(final Album album) {
-        if (albumDatabase.get(album) == null) {
-            albumDatabase.put(album, 1);
-        } else {
-            albumDatabase.put(album, albumDatabase.get(album) + 1);
-        }
+    private void updateAlbumListens(final Album album, final int count) {
+        albumDatabase.add(album, count);
     }
 
     /**
      * Updates the number of listens for the specified artist in the artist database.
      *
      * @param artist The artist for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    private void updateArtistListens(final Artist artist) {
-        if (artistDatabase.get(artist) == null) {
-            artistDatabase.put(artist, 1);
-        } else {
-            artistDatabase.put(artist, artistDatabase.get(artist) + 1);
-        }
+    private void updateArtistListens(final Artist artist, final int count) {
+        artistDatabase.add(artist, count);
     }
 
     /**
      * Updates the number of listens for the specified genre in the genre database.
      *
      * @param genre The genre for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    private void updateGenreListens(final String genre) {
-        if (genreDatabase.get(genre) == null) {
-            genreDatabase.put(genre, 1);
-        } else {
-            genreDatabase.put(genre, genreDatabase.get(genre) + 1);
-        }
+    private void updateGenreListens(final String genre, final int count) {
+        genreDatabase.add(genre, count);
     }
 
     /**
@@ -154,39 +142,35 @@ public final class UserWrapped extends Wrapped {
      * Also, updates the fan listens in the artist's wrapped information.
      *
      * @param song The song that is played.
+     * @param count The number of times the song is played.
      */
-    private void listenArtist(final Song song) {
-        Database database = Database.getDatabase();
+    private void listenArtist(final Song song, final int count) {
+        Album album = song.getOwningAlbum();
+        if (album == null) {
+            return;
+        }
+        Artist artist = album.getOwningArtist();
 
-        for (Artist artist : database.getArtists()) {
-            for (Album album : artist.getAlbums()) {
-                if (album.getSongs().contains(song)) {
-                    updateArtistListens(artist);
+        updateArtistListens(artist, count);
 
-                    // update also artist wrapped
-                    if (artist.getWrapped().getFanDatabase().get(user) == null) {
-                        artist.getWrapped().updateListeners();
-                    }
-                    artist.getWrapped().updateFanListens(user);
-                    artist.getWrapped().updateSongListens(song);
-                    artist.getWrapped().updateAlbumListens(album);
-                }
-            }
+        // update also artist wrapped
+        if (!artist.getWrapped().getFanDatabase().containsKey(user)) {
+            artist.getWrapped().updateListeners();
         }
+        artist.getWrapped().updateFanListens(user, count);
+        artist.getWrapped().updateSongListens(song, count);
+        artist.getWrapped().updateAlbumListens(album, count);
     }
 
     /**
      * Updates the listen count for the specified album when a song is played.
      *
      * @param song The song that is played.
+     * @param count The number of times the song is played.
      */
-    private void listenAlbum(final Song song) {
-        Database database = Database.getDatabase();
-
-        for (Album album : database.getAlbums()) {
-            if (album.getSongs().contains(song)) {
-                updateAlbumListens(album);
-            }
+    private void listenAlbum(final Song song, final int count) {
+        if (song.getOwningAlbum() != null) {
+            updateAlbumListens(song.getOwningAlbum(), count);
         }
     }
 
@@ -194,35 +178,44 @@ public final class UserWrapped extends Wrapped {
      * Updates the listen count for the specified genre when a song is played.
      *
      * @param song The song that is played.
+     * @param count The number of times the song is played.
      */
-    private void listenGenre(final Song song) {
-        updateGenreListens(song.getGenre());
+    private void listenGenre(final Song song, final int count) {
+        updateGenreListens(song.getGenre(), count);
     }
 
     /**
      * Updates the listen count for the specified song in the premium song database.
      *
      * @param song The song for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    public void updatePremiumSongListens(final Song song) {
-        if (premiumSongDatabase.get(song) == null) {
-            premiumSongDatabase.put(song, 1);
-        } else {
-            premiumSongDatabase.put(song, premiumSongDatabase.get(song) + 1);
-        }
+    public void updatePremiumSongListens(final Song song, final int count) {
+        premiumSongDatabase.add(song, count);
     }
 
     /**
      * Updates the listen count for the specified song in the free song database.
      *
      * @param song The song for which the listens are to be updated.
+     * @param count The number of listens.
      */
-    public void updateFreeSongListens(final Song song) {
-        if (freeSongDatabase.get(song) == null) {
-            freeSongDatabase.put(song, 1);
-        } else {
-            freeSongDatabase.put(song, freeSongDatabase.get(song) + 1);
-        }
+    public void updateFreeSongListens(final Song song, final int count) {
+        freeSongDatabase.add(song, count);
+    }
+
+    /**
+     * Clears the listens of the songs played while the user was premium.
+     */
+    public void clearPremiumSongListens() {
+        premiumSongDatabase.clear();
+    }
+
+    /**
+     * Clears the listens of the songs played while the user was free.
+     */
+    public void clearFreeSongListens() {
+        freeSongDatabase.clear();
     }
 
 
@@ -232,22 +225,32 @@ public final class UserWrapped extends Wrapped {
      * @param song The song for which the listens are to be updated.
      */
     public void updateSongListens(final Song song) {
-        empty = false;
-        if (songDatabase.get(song) == null) {
-            songDatabase.put(song, 1);
-        } else {
-            songDatabase.put(song, songDatabase.get(song) + 1);
+        updateSongListens(song, 1);
+    }
+
+    /**
+     * Updates the listen count for the specified song, played several times in a row.
+     * Crediting all the listens at once gives the same counts as crediting them one by one.
+     *
+     * @param song The song for which the listens are to be updated.
+     * @param count The number of times the song is played.
+     */
+    public void updateSongListens(final Song song, final int count) {
+        if (count == 0) {
+            return;
         }
+        empty = false;
+        songDatabase.add(song, count);
 
         if (user.isPremium()) {
-            updatePremiumSongListens(song);
+            updatePremiumSongListens(song, count);
         } else {
-            updateFreeSongListens(song);
+            updateFreeSongListens(song, count);
         }
 
-        listenAlbum(song);
-        listenArtist(song);
-        listenGenre(song);
+        listenAlbum(song, count);
+        listenArtist(song, count);
+        listenGenre(song, count);
     }
 
     /**
@@ -257,25 +260,32 @@ public final class UserWrapped extends Wrapped {
      * @param episode The episode for which the listens are to be updated.
      */
     public void updateEpisodeListens(final Episode episode) {
-        empty = false;
-        if (episodeDatabase.get(episode) == null) {
-            episodeDatabase.put(episode, 1);
-        } else {
-            episodeDatabase.put(episode, episodeDatabase.get(episode) + 1);
-        }
+        updateEpisodeListens(episode, 1);
+    }
 
-        // update also hosts wrapped
-        Database database = Database.getDatabase();
-        for (Host host : database.getHosts()) {
-            for (Podcast podcast : host.getPodcasts()) {
-                if (podcast.getEpisodes().contains(episode)) {
-                    if (host.getWrapped().getFanDatabase().get(user) == null) {
-                        host.getWrapped().updateListeners();
-                    }
-                    host.getWrapped().updateFanListens(user);
-                    host.getWrapped().updateEpisodeListens(episode);
-                }
+    /**
+     * Updates the listen count for the specified podcast episode, played several times in a row.
+     * Also, updates the fan listens in the host's wrapped information.
+     *
+     * @param episode The episode for which the listens are to be updated.
+     * @param count The number of times the episode is played.
+     */
+    public void updateEpisodeListens(final Episode episode, final int count) {
+        if (count == 0) {
+            return;
+        }
+        empty = false;
+        episodeDatabase.add(episode, count);
+
+        // update also the host's wrapped
+        Podcast podcast = episode.getOwningPodcast();
+        if (podcast != null && podcast.getOwningHost() != null) {
+            Host host = podcast.getOwningHost();
+            if (!host.getWrapped().getFanDatabase().containsKey(user)) {
+                host.getWrapped().updateListeners();
             }
+            host.getWrapped().updateFanListens(user, count);
+            host.getWrapped().updateEpisodeListens(episode, count);
         }
     }
 
@@ -288,18 +298,14 @@ public final class UserWrapped extends Wrapped {
         topGenres.clear();
 
         // getting top artists
-        Enumeration<Artist> artistKeys = artistDatabase.keys();
-        while (artistKeys.hasMoreElements()) {
-            Artist key = artistKeys.nextElement();
-            topArtists.add(key);
-        }
+        topArtists.addAll(artistDatabase.keys());
         topArtists.sort(new Comparator<Artist>() {
             @Override
             public int compare(final Artist s1, final Artist s2) {
-                if (artistDatabase.get(s2).compareTo(artistDatabase.get(s1)) == 0) {
+                if (artistDatabase.get(s2) == artistDatabase.get(s1)) {
                     return s1.getUsername().compareTo(s2.getUsername());
                 }
-                return artistDatabase.get(s2).compareTo(artistDatabase.get(s1));
+                return Integer.compare(artistDatabase.get(s2), artistDatabase.get(s1));
             }
         });
 
@@ -307,18 +313,14 @@ public final class UserWrapped extends Wrapped {
         topArtists = topArtists.subList(0, minSize);
 
         // getting top genres
-        Enumeration<String> genreKeys = genreDatabase.keys();
-        while (genreKeys.hasMoreElements()) {
-            String key = genreKeys.nextElement();
-            topGenres.add(key);
-        }
+        topGenres.addAll(genreDatabase.keys());
         topGenres.sort(new Comparator<String>() {
             @Override
             public int compare(final String s1, final String s2) {
-                if (genreDatabase.get(s2).compareTo(genreDatabase.get(s1)) == 0) {
+                if (genreDatabase.get(s2) == genreDatabase.get(s1)) {
                     return s1.compareTo(s2);
                 }
-                return genreDatabase.get(s2).compareTo(genreDatabase.get(s1));
+                return Integer.compare(genreDatabase.get(s2), genreDatabase.get(s1));
             }
         });
 
@@ -328,9 +330,7 @@ public final class UserWrapped extends Wrapped {
 
         mergedSongDatabase.clear();
         // getting top songs
-        Enumeration<Song> songKeys = songDatabase.keys();
-        while (songKeys.hasMoreElements()) {
-            Song key = songKeys.nextElement();
+        for (Song key : songDatabase.keys()) {
 
             boolean canAdd = true;
 
@@ -344,30 +344,27 @@ public final class UserWrapped extends Wrapped {
             if (canAdd) {
                 topSongs.add(key);
 
-                Integer songListens = songDatabase.get(key);
-
-                Enumeration<Song> keys = songDatabase.keys();
-                while (keys.hasMoreElements()) {
-                    Song key2 = keys.nextElement();
+                int songListens = songDatabase.get(key);
 
+                for (Song key2 : songDatabase.keys()) {
                     if (key2.getName().compareTo(key.getName()) == 0 && key2 != key) {
                         songListens += songDatabase.get(key2);
                     }
                 }
 
-                mergedSongDatabase.merge(key, songListens, Integer::sum);
+                mergedSongDatabase.add(key, songListens);
             }
         }
         topSongs.sort(new Comparator<Song>() {
             @Override
             public int compare(final Song s1, final Song s2) {
-                Integer firstSongListens = mergedSongDatabase.get(s1);
-                Integer secondSongListens = mergedSongDatabase.get(s2);
+                int firstSongListens = mergedSongDatabase.get(s1);
+                int secondSongListens = mergedSongDatabase.get(s2);
 
-                if (firstSongListens.compareTo(secondSongListens) == 0) {
+                if (firstSongListens == secondSongListens) {
                     return s1.getName().compareTo(s2.getName());
                 }
-                return secondSongListens.compareTo(firstSongListens);
+                return Integer.compare(secondSongListens, firstSongListens);
             }
         });
 
@@ -376,9 +373,7 @@ public final class UserWrapped extends Wrapped {
 
         mergedAlbumDatabase.clear();
         // getting top albums
-        Enumeration<Album> albumKeys = albumDatabase.keys();
-        while (albumKeys.hasMoreElements()) {
-            Album key = albumKeys.nextElement();
+        for (Album key : albumDatabase.keys()) {
 
             boolean canAdd = true;
 
@@ -392,27 +387,24 @@ public final class UserWrapped extends Wrapped {
             if (canAdd) {
                 topAlbums.add(key);
 
-                Integer albumListens = albumDatabase.get(key);
-
-                Enumeration<Album> keys = albumDatabase.keys();
-                while (keys.hasMoreElements()) {
-                    Album key2 = keys.nextElement();
+                int albumListens = albumDatabase.get(key);
 
+                for (Album key2 : albumDatabase.keys()) {
                     if (key2.getName().compareTo(key.getName()) == 0 && key2 != key) {
                         albumListens += albumDatabase.get(key2);
                     }
                 }
 
-                mergedAlbumDatabase.merge(key, albumListens, Integer::sum);
+                mergedAlbumDatabase.add(key, albumListens);
             }
         }
         topAlbums.sort(new Comparator<Album>() {
             @Override
             public int compare(final Album s1, final Album s2) {
-                if (mergedAlbumDatabase.get(s2).compareTo(mergedAlbumDatabase.get(s1)) == 0) {
+                if (mergedAlbumDatabase.get(s2) == mergedAlbumDatabase.get(s1)) {
                     return s1.getName().compareTo(s2.getName());
                 }
-                return mergedAlbumDatabase.get(s2).compareTo(mergedAlbumDatabase.get(s1));
+                return Integer.compare(mergedAlbumDatabase.get(s2), mergedAlbumDatabase.get(s1));
             }
         });
 
@@ -420,18 +412,14 @@ public final class UserWrapped extends Wrapped {
         topAlbums = topAlbums.subList(0, minSize);
 
         // getting top episodes
-        Enumeration<Episode> episodeKeys = episodeDatabase.keys();
-        while (episodeKeys.hasMoreElements()) {
-            Episode key = episodeKeys.nextElement();
-            topEpisodes.add(key);
-        }
+        topEpisodes.addAll(episodeDatabase.keys());
         topEpisodes.sort(new Comparator<Episode>() {
             @Override
             public int compare(final Episode s1, final Episode s2) {
-                if (episodeDatabase.get(s2).compareTo(episodeDatabase.get(s1)) == 0) {
+                if (episodeDatabase.get(s2) == episodeDatabase.get(s1)) {
                     return s1.getName().compareTo(s2.getName());
                 }
-                return episodeDatabase.get(s2).compareTo(episodeDatabase.get(s1));
+                return Integer.compare(episodeDatabase.get(s2), episodeDatabase.get(s1));
             }
         });
 
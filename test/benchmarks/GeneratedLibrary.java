@@ -0,0 +1,221 @@
+package benchmarks;
+
+import audioentities.audiofiles.Song;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import database.Database;
+import database.SimulationContext;
+import fileio.input.EpisodeInput;
+import fileio.input.SongInput;
+import ioparser.CommandInput;
+import ioparser.OutputWriter;
+import userentities.artist.Artist;
+import userentities.factory.ArtistFactory;
+import userentities.factory.HostFactory;
+import userentities.host.Host;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Library generated for the benchmarks, in the database of a new context: songs that are
+ * only in the library, artists with albums and hosts with podcasts. The names, lyrics
+ * and descriptions are a few random words, some of them capitalized, and the random
+ * is seeded, so every run generates the same library.
+ */
+final class GeneratedLibrary implements AutoCloseable {
+    // constants
+    static final int HOSTS = 50;
+    static final int AGE = 30;
+    private static final long SEED = 1;
+    private static final int ARTISTS = 100;
+    private static final int ALBUMS_PER_ARTIST = 4;
+    private static final int SONGS_PER_ALBUM = 8;
+    private static final int PODCASTS_PER_HOST = 3;
+    private static final int EPISODES_PER_PODCAST = 5;
+    private static final int MAX_TAGS = 3;
+    private static final int MAX_NAME_WORDS = 3;
+    private static final int LYRICS_WORDS = 12;
+    private static final int MIN_DURATION = 60;
+    private static final int MAX_DURATION = 400;
+    private static final int FIRST_YEAR = 1960;
+    private static final int YEARS = 64;
+
+    private static final String[] WORDS = {
+        "love", "night", "fire", "dream", "heart", "rain", "blue", "gold", "road", "light",
+        "shadow", "river", "storm", "dance", "silent", "wild", "summer", "echo", "stone", "sky",
+    };
+    private static final String[] GENRES = {
+        "Pop", "Rock", "Jazz", "Blues", "Hip Hop", "Electronic", "Classical", "Metal",
+    };
+    private static final String[] TAGS = {
+        "#pop", "#rock", "#chill", "#party", "#sad", "#live", "#acoustic", "#remix",
+    };
+
+    private final Random random;
+    private final File outputFile;
+    private final OutputWriter outputs;
+    private final SimulationContext context;
+
+    /**
+     * Opens a new context and fills its database with the generated library.
+     *
+     * @param name The name of the benchmark, used for its output file.
+     * @param librarySongs The number of songs that are only in the library.
+     * @throws IOException in case of exceptions to creating the outputs
+     */
+    GeneratedLibrary(final String name, final int librarySongs) throws IOException {
+        random = new Random(SEED);
+        ObjectMapper objectMapper = new ObjectMapper();
+        outputFile = File.createTempFile(name, ".json");
+        outputs = new OutputWriter(objectMapper, outputFile, false);
+        context = SimulationContext.open(objectMapper, outputs);
+
+        Database database = context.getDatabase();
+        database.setNormalUsers(new ArrayList<>());
+        database.setArtists(new ArrayList<>());
+        database.setHosts(new ArrayList<>());
+        database.setSongs(generateSongs(librarySongs));
+        database.setPodcasts(new ArrayList<>());
+        database.setPlaylists(new ArrayList<>());
+        database.setAlbums(new ArrayList<>());
+        generateArtists();
+        generateHosts();
+    }
+
+    Database getDatabase() {
+        return context.getDatabase();
+    }
+
+    /**
+     * @return The random the library was generated with, to go on generating the benchmark.
+     */
+    Random getRandom() {
+        return random;
+    }
+
+    String randomWord() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    String randomGenre() {
+        return GENRES[random.nextInt(GENRES.length)];
+    }
+
+    String randomTag() {
+        return TAGS[random.nextInt(TAGS.length)];
+    }
+
+    int randomYear() {
+        return FIRST_YEAR + random.nextInt(YEARS);
+    }
+
+    String randomArtist() {
+        return "artist " + random.nextInt(ARTISTS);
+    }
+
+    String randomHost() {
+        return "host " + random.nextInt(HOSTS);
+    }
+
+    /**
+     * Ends the context of the library.
+     *
+     * @throws IOException in case of exceptions to writing the outputs
+     */
+    @Override
+    public void close() throws IOException {
+        context.close();
+        outputs.close();
+        outputFile.delete();
+    }
+
+    private String words(final int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            if (i > 0) {
+                words.append(' ');
+            }
+            String word = randomWord();
+            // some words are capitalized, for the case-insensitive comparisons
+            if (random.nextBoolean()) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            words.append(word);
+        }
+        return words.toString();
+    }
+
+    private SongInput generateSong(final String album, final String artist) {
+        SongInput song = new SongInput();
+        song.setName(words(1 + random.nextInt(MAX_NAME_WORDS)));
+        song.setDuration(MIN_DURATION + random.nextInt(MAX_DURATION - MIN_DURATION));
+        song.setAlbum(album);
+        ArrayList<String> tags = new ArrayList<>();
+        for (int i = random.nextInt(MAX_TAGS + 1); i > 0; --i) {
+            tags.add(randomTag());
+        }
+        song.setTags(tags);
+        song.setLyrics(words(LYRICS_WORDS));
+        song.setGenre(randomGenre());
+        song.setReleaseYear(randomYear());
+        song.setArtist(artist);
+        return song;
+    }
+
+    private ArrayList<Song> generateSongs(final int librarySongs) {
+        ArrayList<Song> songs = new ArrayList<>(librarySongs);
+        for (int i = 0; i < librarySongs; ++i) {
+            songs.add(new Song(generateSong(words(2), "artist " + i % ARTISTS)));
+        }
+        return songs;
+    }
+
+    private void generateArtists() {
+        for (int i = 0; i < ARTISTS; ++i) {
+            String username = "artist " + i;
+            Artist artist = (Artist) new ArtistFactory().createUserEntity(username, AGE, "city");
+            for (int j = 0; j < ALBUMS_PER_ARTIST; ++j) {
+                String albumName = words(2) + " " + j;
+                ArrayList<SongInput> songs = new ArrayList<>();
+                for (int k = 0; k < SONGS_PER_ALBUM; ++k) {
+                    SongInput song = generateSong(albumName, username);
+                    song.setName(song.getName() + " " + k);
+                    songs.add(song);
+                }
+
+                CommandInput addAlbumInput = new CommandInput();
+                addAlbumInput.setUsername(username);
+                addAlbumInput.setName(albumName);
+                addAlbumInput.setReleaseYear(randomYear());
+                addAlbumInput.setDescription(words(2));
+                addAlbumInput.setSongs(songs);
+                artist.addAlbum(addAlbumInput);
+            }
+        }
+    }
+
+    private void generateHosts() {
+        for (int i = 0; i < HOSTS; ++i) {
+            String username = "host " + i;
+            Host host = (Host) new HostFactory().createUserEntity(username, AGE, "city");
+            for (int j = 0; j < PODCASTS_PER_HOST; ++j) {
+                ArrayList<EpisodeInput> episodes = new ArrayList<>();
+                for (int k = 0; k < EPISODES_PER_PODCAST; ++k) {
+                    EpisodeInput episode = new EpisodeInput();
+                    episode.setName("episode " + k);
+                    episode.setDuration(MIN_DURATION + random.nextInt(MAX_DURATION));
+                    episode.setDescription(words(2));
+                    episodes.add(episode);
+                }
+
+                CommandInput addPodcastInput = new CommandInput();
+                addPodcastInput.setUsername(username);
+                addPodcastInput.setName(words(2) + " " + j);
+                addPodcastInput.setEpisodes(episodes);
+                host.addPodcast(addPodcastInput);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package benchmarks;
+
+import audioentities.audiocollections.Album;
+import audioentities.audiocollections.Podcast;
+import audioentities.audiofiles.Episode;
+import audioentities.audiofiles.Song;
+import database.Database;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import userentities.factory.UserFactory;
+import userentities.user.User;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of crediting listens to the users' wrapped, and through them to the artists'
+ * and hosts' wrapped. The listens follow a realistic mix: a few popular songs get most of them,
+ * some songs are listened again right away, as under repeat, half of the users are premium
+ * and, in the mix, some of the listens are of episodes. Run it with the gc profiler
+ * to get the bytes allocated per listen:
+ * java -cp &lt;classpath&gt; org.openjdk.jmh.Main ListenCountsBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenCountsBenchmark {
+    // constants
+    private static final int USERS = 100;
+    private static final int LISTENS = 1 << 16;
+    // percentages of the listens of the mix
+    private static final int PERCENT = 100;
+    private static final int REPEAT_PERCENT = 30;
+    private static final int EPISODE_PERCENT = 20;
+    private static final int MAX_REPEATS = 5;
+
+    private GeneratedLibrary library;
+    private User[] listeners;
+    private Song[] listenedSongs;
+    private Episode[] listenedEpisodes;
+    private int next;
+
+    /**
+     * Adds the users to the generated library and generates the listens,
+     * so that only the crediting is measured.
+     *
+     * @throws IOException in case of exceptions to creating the outputs
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        library = new GeneratedLibrary("listen-benchmark", 0);
+        Random random = library.getRandom();
+        Database database = library.getDatabase();
+
+        User[] users = new User[USERS];
+        for (int i = 0; i < USERS; ++i) {
+            users[i] = (User) new UserFactory().createUserEntity("user " + i,
+                    GeneratedLibrary.AGE, "city");
+            // half of the users are premium, whose listens are kept apart
+            if (i % 2 == 1) {
+                users[i].buyPremium();
+            }
+        }
+
+        ArrayList<Song> songs = new ArrayList<>();
+        for (Album album : database.getAlbums()) {
+            songs.addAll(album.getSongs());
+        }
+        ArrayList<Episode> episodes = new ArrayList<>();
+        for (Podcast podcast : database.getPodcasts()) {
+            episodes.addAll(podcast.getEpisodes());
+        }
+
+        double[] songPopularity = zipfDistribution(songs.size());
+        double[] episodePopularity = zipfDistribution(episodes.size());
+        listeners = new User[LISTENS];
+        listenedSongs = new Song[LISTENS];
+        listenedEpisodes = new Episode[LISTENS];
+        int listen = 0;
+        while (listen < LISTENS) {
+            User listener = users[random.nextInt(USERS)];
+            Song song = songs.get(sample(random, songPopularity));
+            Episode episode = null;
+            if (random.nextInt(PERCENT) < EPISODE_PERCENT) {
+                episode = episodes.get(sample(random, episodePopularity));
+            }
+            int repeats = 1;
+            if (random.nextInt(PERCENT) < REPEAT_PERCENT) {
+                repeats += 1 + random.nextInt(MAX_REPEATS);
+            }
+            for (; repeats > 0 && listen < LISTENS; --repeats, ++listen) {
+                listeners[listen] = listener;
+                listenedSongs[listen] = song;
+                listenedEpisodes[listen] = episode;
+            }
+        }
+    }
+
+    /**
+     * Ends the context of the benchmark.
+     *
+     * @throws IOException in case of exceptions to writing the outputs
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        library.close();
+    }
+
+    /**
+     * Credits the next listen of a song.
+     */
+    @Benchmark
+    public void songListens() {
+        next = (next + 1) % LISTENS;
+        listeners[next].getWrapped().updateSongListens(listenedSongs[next]);
+    }
+
+    /**
+     * Credits the next listen of the mix, of a song or of an episode.
+     */
+    @Benchmark
+    public void listenMix() {
+        next = (next + 1) % LISTENS;
+        if (listenedEpisodes[next] != null) {
+            listeners[next].getWrapped().updateEpisodeListens(listenedEpisodes[next]);
+        } else {
+            listeners[next].getWrapped().updateSongListens(listenedSongs[next]);
+        }
+    }
+
+    /**
+     * @param size The number of ranks.
+     * @return The cumulative probabilities of a Zipf distribution over the ranks.
+     */
+    private static double[] zipfDistribution(final int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; ++i) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; ++i) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(final Random random, final double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, cumulative.length - 1);
+    }
+}
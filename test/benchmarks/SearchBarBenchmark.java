@@ -0,0 +1,214 @@
+package benchmarks;
+
+import ioparser.CommandInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import userentities.factory.UserFactory;
+import userentities.user.User;
+import userentities.user.searchbar.SearchBar;
+import userentities.user.searchbar.filters.Filters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * JMH benchmark of SearchBar.search over a generated library, one benchmark per kind
+ * of search. Run it with the gc profiler to get the bytes allocated per search:
+ * java -cp &lt;classpath&gt; org.openjdk.jmh.Main SearchBarBenchmark -prof gc
+ * It only drives the search through the users, artists and hosts, like the commands do.
+ * To compare with a tree from before SimulationContext, GeneratedLibrary has to fill
+ * Database.getDatabase() instead of the database of a new context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBarBenchmark {
+    // constants
+    private static final int QUERIES = 64;
+
+    @Param({"20000"})
+    private int librarySongs;
+
+    private GeneratedLibrary library;
+    private Random random;
+    private SearchBar searchBar;
+    private CommandInput[] nameQueries;
+    private CommandInput[] genreQueries;
+    private CommandInput[] releaseYearQueries;
+    private CommandInput[] lyricsQueries;
+    private CommandInput[] selectiveQueries;
+    private CommandInput[] albumQueries;
+    private CommandInput[] podcastQueries;
+    private CommandInput[] userQueries;
+    private int next;
+
+    /**
+     * Fills the database of a new context with the generated library
+     * and prepares the searches.
+     *
+     * @throws IOException in case of exceptions to creating the outputs
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        library = new GeneratedLibrary("search-benchmark", librarySongs);
+        random = library.getRandom();
+
+        User user = (User) new UserFactory().createUserEntity("listener", GeneratedLibrary.AGE,
+                "city");
+        searchBar = user.getSearchBar();
+
+        // broad searches, matched by most of the library
+        nameQueries = queries("song",
+                filters -> filters.setName(library.randomWord().substring(0, 1)));
+        genreQueries = queries("song",
+                filters -> filters.setGenre(library.randomGenre().toLowerCase()));
+        releaseYearQueries = queries("song", filters -> filters.setReleaseYear(
+                (random.nextBoolean() ? "<" : ">") + library.randomYear()));
+        lyricsQueries = queries("song", filters -> filters.setLyrics(library.randomWord()));
+        // searches matched by few songs, or by none
+        selectiveQueries = queries("song", filters -> {
+            filters.setGenre(library.randomGenre());
+            filters.setArtist(library.randomArtist());
+            filters.setTags(new ArrayList<>(List.of(library.randomTag())));
+            filters.setReleaseYear(">" + library.randomYear());
+        });
+        albumQueries = queries("album", filters -> {
+            if (random.nextBoolean()) {
+                filters.setName(library.randomWord());
+            } else {
+                filters.setOwner(library.randomArtist());
+            }
+        });
+        podcastQueries = queries("podcast", filters -> {
+            if (random.nextBoolean()) {
+                filters.setName(library.randomWord());
+            } else {
+                filters.setOwner(library.randomHost());
+            }
+        });
+        userQueries = new CommandInput[QUERIES];
+        for (int i = 0; i < QUERIES; ++i) {
+            String type = i % 2 == 0 ? "artist" : "host";
+            Filters filters = new Filters();
+            filters.setName(type + " " + random.nextInt(GeneratedLibrary.HOSTS));
+            userQueries[i] = query(type, filters);
+        }
+    }
+
+    /**
+     * Ends the context of the benchmark.
+     *
+     * @throws IOException in case of exceptions to writing the outputs
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        library.close();
+    }
+
+    /**
+     * @return The message of a search of songs by the prefix of their names.
+     */
+    @Benchmark
+    public String songName() {
+        return search(nameQueries);
+    }
+
+    /**
+     * @return The message of a search of songs by genre.
+     */
+    @Benchmark
+    public String songGenre() {
+        return search(genreQueries);
+    }
+
+    /**
+     * @return The message of a search of songs by release year.
+     */
+    @Benchmark
+    public String songReleaseYear() {
+        return search(releaseYearQueries);
+    }
+
+    /**
+     * @return The message of a search of songs by a word of their lyrics.
+     */
+    @Benchmark
+    public String songLyrics() {
+        return search(lyricsQueries);
+    }
+
+    /**
+     * @return The message of a search of songs by several filters.
+     */
+    @Benchmark
+    public String songSelective() {
+        return search(selectiveQueries);
+    }
+
+    /**
+     * @return The message of a search of albums.
+     */
+    @Benchmark
+    public String album() {
+        return search(albumQueries);
+    }
+
+    /**
+     * @return The message of a search of podcasts.
+     */
+    @Benchmark
+    public String podcast() {
+        return search(podcastQueries);
+    }
+
+    /**
+     * @return The message of a search of artists or hosts.
+     */
+    @Benchmark
+    public String artistOrHost() {
+        return search(userQueries);
+    }
+
+    private String search(final CommandInput[] queries) {
+        next = (next + 1) % queries.length;
+        return searchBar.search(queries[next]);
+    }
+
+    private CommandInput[] queries(final String type, final Consumer<Filters> filler) {
+        CommandInput[] queries = new CommandInput[QUERIES];
+        for (int i = 0; i < QUERIES; ++i) {
+            Filters filters = new Filters();
+            filler.accept(filters);
+            queries[i] = query(type, filters);
+        }
+        return queries;
+    }
+
+    private static CommandInput query(final String type, final Filters filters) {
+        CommandInput query = new CommandInput();
+        query.setCommand("search");
+        query.setUsername("listener");
+        query.setTimestamp(0);
+        query.setType(type);
+        query.setFilters(filters);
+        return query;
+    }
+}
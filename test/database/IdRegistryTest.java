@@ -0,0 +1,142 @@
+package database;
+
+import audioentities.audiocollections.Album;
+import audioentities.audiofiles.Song;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.input.SongInput;
+import ioparser.CommandInput;
+import ioparser.OutputWriter;
+import org.junit.jupiter.api.Test;
+import userentities.artist.Artist;
+import userentities.factory.ArtistFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests that the IDs of removed entities are given again, smallest first,
+ * and that the bound of the IDs shrinks when the largest ones are freed.
+ */
+public final class IdRegistryTest {
+    // constants
+    private static final int IDS = 5;
+    private static final int AGE = 20;
+    private static final int DURATION = 10;
+    private static final int RELEASE_YEAR = 2000;
+
+    @Test
+    void givesTheSmallestFreeIdFirst() {
+        IdRegistry registry = acquired(IDS);
+
+        registry.release(3);
+        registry.release(1);
+        assertEquals(IDS, registry.getBound());
+
+        assertEquals(1, registry.acquire());
+        assertEquals(3, registry.acquire());
+        assertEquals(IDS, registry.acquire());
+        assertEquals(IDS + 1, registry.getBound());
+    }
+
+    @Test
+    void shrinksTheBoundOverTheFreeIdsBelowTheTopOne() {
+        IdRegistry registry = acquired(IDS);
+
+        registry.release(1);
+        registry.release(2);
+        registry.release(3);
+        assertEquals(IDS, registry.getBound());
+
+        // freeing the top ID also drops the free IDs right below it
+        registry.release(4);
+        assertEquals(1, registry.getBound());
+
+        assertEquals(1, registry.acquire());
+        assertEquals(2, registry.acquire());
+        assertEquals(3, registry.getBound());
+    }
+
+    @Test
+    void ignoresNoId() {
+        IdRegistry registry = acquired(IDS);
+
+        registry.release(IdRegistry.NO_ID);
+        assertEquals(IDS, registry.getBound());
+        assertEquals(IDS, registry.acquire());
+    }
+
+    @Test
+    void removedEntitiesHaveNoId() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        File outputFile = File.createTempFile("id-registry-test", ".json");
+        try (OutputWriter outputs = new OutputWriter(objectMapper, outputFile, false);
+             SimulationContext context = SimulationContext.open(objectMapper, outputs)) {
+            Database database = context.getDatabase();
+            database.setNormalUsers(new ArrayList<>());
+            database.setArtists(new ArrayList<>());
+            database.setHosts(new ArrayList<>());
+            database.setSongs(new ArrayList<>());
+            database.setPodcasts(new ArrayList<>());
+            database.setPlaylists(new ArrayList<>());
+            database.setAlbums(new ArrayList<>());
+
+            Artist artist = (Artist) new ArtistFactory()
+                    .createUserEntity("artist", AGE, "city");
+            artist.addAlbum(albumInput(artist.getUsername(), "removed album"));
+            Album album = artist.getAlbums().get(0);
+            Song song = album.getSongs().get(0);
+            assertNotEquals(IdRegistry.NO_ID, album.getId());
+            assertNotEquals(IdRegistry.NO_ID, song.getId());
+
+            CommandInput removeAlbum = command();
+            removeAlbum.setUsername(artist.getUsername());
+            removeAlbum.setName("removed album");
+            assertEquals("artist deleted the album successfully.",
+                    artist.removeAlbum(removeAlbum));
+
+            assertEquals(IdRegistry.NO_ID, album.getId());
+            assertEquals(IdRegistry.NO_ID, song.getId());
+        } finally {
+            outputFile.delete();
+        }
+    }
+
+    private static IdRegistry acquired(final int ids) {
+        IdRegistry registry = new IdRegistry();
+        for (int i = 0; i < ids; ++i) {
+            assertEquals(i, registry.acquire());
+        }
+        return registry;
+    }
+
+    private static CommandInput albumInput(final String artist, final String name) {
+        SongInput song = new SongInput();
+        song.setName(name + " song");
+        song.setDuration(DURATION);
+        song.setAlbum(name);
+        song.setTags(new ArrayList<>(List.of("rock")));
+        song.setLyrics("");
+        song.setGenre("rock");
+        song.setReleaseYear(RELEASE_YEAR);
+        song.setArtist(artist);
+
+        CommandInput input = command();
+        input.setUsername(artist);
+        input.setName(name);
+        input.setReleaseYear(RELEASE_YEAR);
+        input.setDescription("");
+        input.setSongs(new ArrayList<>(List.of(song)));
+        return input;
+    }
+
+    private static CommandInput command() {
+        CommandInput input = new CommandInput();
+        input.setTimestamp(0);
+        return input;
+    }
+}
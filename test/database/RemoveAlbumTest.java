@@ -0,0 +1,110 @@
+package database;
+
+import audioentities.AudioEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.input.SongInput;
+import ioparser.CommandInput;
+import ioparser.OutputWriter;
+import org.junit.jupiter.api.Test;
+import userentities.artist.Artist;
+import userentities.factory.ArtistFactory;
+import userentities.factory.UserFactory;
+import userentities.user.User;
+import userentities.user.searchbar.filters.Filters;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that removing an album also removes its songs from the search index,
+ * when a song repeats one of its tags.
+ */
+public final class RemoveAlbumTest {
+    // constants
+    private static final String REMOVED_ALBUM = "removed album";
+    private static final String KEPT_ALBUM = "kept album";
+    private static final int AGE = 20;
+    private static final int DURATION = 10;
+    private static final int RELEASE_YEAR = 2000;
+
+    @Test
+    void removesAlbumWithRepeatedTags() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        File outputFile = File.createTempFile("remove-album-test", ".json");
+        try (OutputWriter outputs = new OutputWriter(objectMapper, outputFile, false);
+             SimulationContext context = SimulationContext.open(objectMapper, outputs)) {
+            Database database = context.getDatabase();
+            database.setNormalUsers(new ArrayList<>());
+            database.setArtists(new ArrayList<>());
+            database.setHosts(new ArrayList<>());
+            database.setSongs(new ArrayList<>());
+            database.setPodcasts(new ArrayList<>());
+            database.setPlaylists(new ArrayList<>());
+            database.setAlbums(new ArrayList<>());
+
+            User user = (User) new UserFactory().createUserEntity("listener", AGE, "city");
+            Artist artist = (Artist) new ArtistFactory()
+                    .createUserEntity("artist", AGE, "city");
+            artist.addAlbum(albumInput(artist.getUsername(), REMOVED_ALBUM,
+                    List.of("rock", "rock")));
+            artist.addAlbum(albumInput(artist.getUsername(), KEPT_ALBUM, List.of("pop")));
+
+            CommandInput removeAlbum = command();
+            removeAlbum.setUsername(artist.getUsername());
+            removeAlbum.setName(REMOVED_ALBUM);
+            assertEquals("artist deleted the album successfully.",
+                    artist.removeAlbum(removeAlbum));
+
+            assertEquals(List.of(), searchTag(user, "rock"));
+            assertEquals(List.of(KEPT_ALBUM + " song"), searchTag(user, "pop"));
+        } finally {
+            outputFile.delete();
+        }
+    }
+
+    private static List<String> searchTag(final User user, final String tag) {
+        CommandInput search = command();
+        search.setType("song");
+        Filters filters = new Filters();
+        filters.setTags(new ArrayList<>(List.of(tag)));
+        search.setFilters(filters);
+        user.getSearchBar().search(search);
+
+        List<String> names = new ArrayList<>();
+        for (AudioEntity song : user.getSearchBar().getFoundAudio()) {
+            names.add(song.getName());
+        }
+        return names;
+    }
+
+    private static CommandInput albumInput(final String artist, final String name,
+                                           final List<String> tags) {
+        SongInput song = new SongInput();
+        song.setName(name + " song");
+        song.setDuration(DURATION);
+        song.setAlbum(name);
+        song.setTags(new ArrayList<>(tags));
+        song.setLyrics("");
+        song.setGenre("rock");
+        song.setReleaseYear(RELEASE_YEAR);
+        song.setArtist(artist);
+
+        CommandInput input = command();
+        input.setUsername(artist);
+        input.setName(name);
+        input.setReleaseYear(RELEASE_YEAR);
+        input.setDescription("");
+        input.setSongs(new ArrayList<>(List.of(song)));
+        return input;
+    }
+
+    private static CommandInput command() {
+        CommandInput input = new CommandInput();
+        input.setTimestamp(0);
+        return input;
+    }
+}
@@ -0,0 +1,438 @@
+package wrapped;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import database.Database;
+import database.SimulationContext;
+import fileio.input.EpisodeInput;
+import fileio.input.SongInput;
+import ioparser.CommandInput;
+import ioparser.OutputWriter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import userentities.artist.Artist;
+import userentities.factory.ArtistFactory;
+import userentities.factory.HostFactory;
+import userentities.factory.UserFactory;
+import userentities.host.Host;
+import userentities.user.User;
+import userentities.user.player.Player;
+import userentities.user.searchbar.filters.Filters;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that crediting listens in bulk gives the same wrapped and revenues as the loops
+ * that credited them once per repeat. Every case is compared to the output of the same
+ * scenario recorded on the baseline tree, before the bulk crediting, in
+ * BulkListenCreditTest.txt. The counters of the user's, artist's and host's wrapped,
+ * the revenues of the artist's songs and the state of the player are compared.
+ * The player cases are run twice: once advancing the player second by second,
+ * which credits every track as it starts, and once in a single update, which credits
+ * the repeats in bulk and skips the full passes of repeat all at once.
+ */
+public final class BulkListenCreditTest {
+    // constants
+    private static final String BASELINE = "BulkListenCreditTest.txt";
+    private static final String CASE_PREFIX = "== ";
+    private static final String ALBUM_NAME = "test album";
+    private static final String PLAYLIST_NAME = "test playlist";
+    private static final String PODCAST_NAME = "test podcast";
+    private static final String[] SONG_NAMES = {"test song a", "test song b", "test song c"};
+    private static final int[] SONG_DURATIONS = {7, 11, 13};
+    private static final String[] EPISODE_NAMES = {"test episode a", "test episode b"};
+    private static final int[] EPISODE_DURATIONS = {5, 9};
+    private static final int[] BULK_COUNTS = {0, 1, 5};
+    private static final int AGE = 20;
+    private static final int RELEASE_YEAR = 2000;
+    private static final Double AD_PRICE = 1000.0;
+    private static final int AD_BREAK_PRICE = 500;
+    private static final int REPEAT_ONCE_TIME = 20;
+    private static final int REPEATED_TIME = 500;
+    private static final int PODCAST_TIME = 12;
+    private static final int SHUFFLE_SEED = 42;
+    // presses of the repeat button for each mode
+    private static final int REPEAT_ONCE = 1;
+    private static final int REPEAT_INFINITE = 2;
+    private static final int REPEAT_ALL = 1;
+    private static final int REPEAT_CURRENT = 2;
+
+    private static Map<String, String> baseline;
+
+    @BeforeAll
+    static void loadBaseline() throws IOException {
+        baseline = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                BulkListenCreditTest.class.getResourceAsStream(BASELINE),
+                StandardCharsets.UTF_8))) {
+            String caseName = null;
+            StringBuilder output = new StringBuilder();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(CASE_PREFIX)) {
+                    if (caseName != null) {
+                        baseline.put(caseName, output.toString());
+                    }
+                    caseName = line.substring(CASE_PREFIX.length());
+                    output.setLength(0);
+                } else {
+                    output.append(line).append('\n');
+                }
+            }
+            if (caseName != null) {
+                baseline.put(caseName, output.toString());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsInBulk(final boolean premium) throws IOException {
+        for (int count : BULK_COUNTS) {
+            assertBaseline("credits " + count, premium, creditInBulk(count));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsSongRepeatedOnce(final boolean premium) throws IOException {
+        assertSamePlay("song repeated once", premium, "song", SONG_NAMES[0], REPEAT_ONCE,
+                false, false, REPEAT_ONCE_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsSongRepeatedInfinitely(final boolean premium) throws IOException {
+        assertSamePlay("song repeated infinitely", premium, "song", SONG_NAMES[0],
+                REPEAT_INFINITE, false, false, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsAlbumRepeatingTheCurrentSong(final boolean premium) throws IOException {
+        assertSamePlay("album repeating the current song", premium, "album", ALBUM_NAME,
+                REPEAT_CURRENT, false, false, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsAlbumRepeated(final boolean premium) throws IOException {
+        assertSamePlay("album repeated", premium, "album", ALBUM_NAME, REPEAT_ALL,
+                false, false, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsShuffledAlbumRepeated(final boolean premium) throws IOException {
+        assertSamePlay("shuffled album repeated", premium, "album", ALBUM_NAME, REPEAT_ALL,
+                true, false, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsAlbumRepeatedWithAnAd(final boolean premium) throws IOException {
+        assertSamePlay("album repeated with an ad", premium, "album", ALBUM_NAME, REPEAT_ALL,
+                false, true, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsPlaylistRepeatingTheCurrentSong(final boolean premium) throws IOException {
+        assertSamePlay("playlist repeating the current song", premium, "playlist",
+                PLAYLIST_NAME, REPEAT_CURRENT, false, false, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsPlaylistRepeated(final boolean premium) throws IOException {
+        assertSamePlay("playlist repeated", premium, "playlist", PLAYLIST_NAME, REPEAT_ALL,
+                false, false, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsShuffledPlaylistRepeated(final boolean premium) throws IOException {
+        assertSamePlay("shuffled playlist repeated", premium, "playlist", PLAYLIST_NAME,
+                REPEAT_ALL, true, false, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsPlaylistRepeatedWithAnAd(final boolean premium) throws IOException {
+        assertSamePlay("playlist repeated with an ad", premium, "playlist", PLAYLIST_NAME,
+                REPEAT_ALL, false, true, REPEATED_TIME);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void creditsPodcast(final boolean premium) throws IOException {
+        assertSamePlay("podcast", premium, "podcast", PODCAST_NAME, 0, false, false,
+                PODCAST_TIME);
+    }
+
+    private static void assertSamePlay(final String caseName, final boolean premium,
+                                       final String type, final String name,
+                                       final int repeatPresses, final boolean shuffle,
+                                       final boolean ad, final int time)
+            throws IOException {
+        assertBaseline(caseName + "/stepped", premium,
+                play(type, name, repeatPresses, shuffle, ad, time, true));
+        assertBaseline(caseName + "/single", premium,
+                play(type, name, repeatPresses, shuffle, ad, time, false));
+    }
+
+    private static void assertBaseline(final String caseName, final boolean premium,
+                                       final Consumer<User> scenario) throws IOException {
+        String fullName = caseName + (premium ? "/premium" : "/free");
+        String expected = baseline.get(fullName);
+        if (expected == null) {
+            throw new IllegalStateException("No baseline output for " + fullName);
+        }
+        assertEquals(expected, run(premium, scenario), fullName);
+    }
+
+    private static Consumer<User> creditInBulk(final int count) {
+        return user -> {
+            Database database = Database.getDatabase();
+            user.getWrapped().updateSongListens(database.getSongs().get(0), count);
+            user.getWrapped().updateEpisodeListens(
+                    database.getPodcasts().get(0).getEpisodes().get(0), count);
+        };
+    }
+
+    /**
+     * Loads a source and plays it for the given time.
+     * A playlist is first created by loading each song of the album and adding it.
+     *
+     * @param type The type of the source, as searched for.
+     * @param name The name of the source.
+     * @param repeatPresses The number of times the repeat button is pressed after loading.
+     * @param shuffle Whether the source is shuffled after loading.
+     * @param ad Whether an ad break is inserted after loading.
+     * @param time The time the source is played for.
+     * @param stepped Whether the player is advanced second by second or all at once.
+     * @return The scenario.
+     */
+    private static Consumer<User> play(final String type, final String name,
+                                       final int repeatPresses, final boolean shuffle,
+                                       final boolean ad, final int time,
+                                       final boolean stepped) {
+        return user -> {
+            Player player = user.getPlayer();
+            if (type.equals("playlist")) {
+                CommandInput create = command(0);
+                create.setPlaylistName(PLAYLIST_NAME);
+                user.createPlaylist(create);
+                for (String songName : SONG_NAMES) {
+                    searchAndSelect(user, "song", songName);
+                    player.load(command(0));
+                    CommandInput addSong = command(0);
+                    addSong.setPlaylistId(1);
+                    user.addRemoveInPlaylist(addSong);
+                }
+            }
+
+            searchAndSelect(user, type, name);
+            player.load(command(0));
+            for (int i = 0; i < repeatPresses; ++i) {
+                player.repeat(command(0));
+            }
+            if (shuffle) {
+                CommandInput shuffleInput = command(0);
+                shuffleInput.setSeed(SHUFFLE_SEED);
+                player.shuffle(shuffleInput);
+            }
+            if (ad) {
+                user.adBreak(AD_BREAK_PRICE);
+            }
+
+            if (stepped) {
+                for (int timestamp = 1; timestamp <= time; ++timestamp) {
+                    player.updatePlayer(timestamp);
+                }
+            } else {
+                player.updatePlayer(time);
+            }
+        };
+    }
+
+    private static void searchAndSelect(final User user, final String type,
+                                        final String name) {
+        CommandInput search = command(0);
+        search.setType(type);
+        Filters filters = new Filters();
+        filters.setName(name);
+        search.setFilters(filters);
+        user.getSearchBar().search(search);
+
+        CommandInput select = command(0);
+        select.setItemNumber(1);
+        user.getSearchBar().select(select);
+    }
+
+    private static CommandInput command(final int timestamp) {
+        CommandInput input = new CommandInput();
+        input.setTimestamp(timestamp);
+        return input;
+    }
+
+    /**
+     * Runs a scenario in a new context, with a user, an artist with an album
+     * and a host with a podcast, and pays the artist for the listens of the user.
+     *
+     * @return The counters and revenues after the scenario.
+     */
+    private static String run(final boolean premium, final Consumer<User> scenario)
+            throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        File outputFile = File.createTempFile("bulk-listen-credit-test", ".json");
+        try (OutputWriter outputs = new OutputWriter(objectMapper, outputFile, false);
+             SimulationContext context = SimulationContext.open(objectMapper, outputs)) {
+            Database database = context.getDatabase();
+            database.setNormalUsers(new ArrayList<>());
+            database.setArtists(new ArrayList<>());
+            database.setHosts(new ArrayList<>());
+            database.setSongs(new ArrayList<>());
+            database.setPodcasts(new ArrayList<>());
+            database.setPlaylists(new ArrayList<>());
+            database.setAlbums(new ArrayList<>());
+
+            User user = (User) new UserFactory().createUserEntity("listener", AGE, "city");
+            Artist artist = (Artist) new ArtistFactory()
+                    .createUserEntity("artist", AGE, "city");
+            Host host = (Host) new HostFactory().createUserEntity("host", AGE, "city");
+            artist.addAlbum(albumInput(artist.getUsername()));
+            host.addPodcast(podcastInput(host.getUsername()));
+            if (premium) {
+                user.buyPremium();
+            }
+
+            scenario.accept(user);
+
+            if (premium) {
+                user.calculatePremiumMoney();
+            } else {
+                user.calculateFreeMoney(AD_PRICE);
+            }
+            return describe(user, artist, host);
+        } finally {
+            outputFile.delete();
+        }
+    }
+
+    private static CommandInput albumInput(final String artist) {
+        ArrayList<SongInput> songs = new ArrayList<>();
+        for (int i = 0; i < SONG_NAMES.length; ++i) {
+            SongInput song = new SongInput();
+            song.setName(SONG_NAMES[i]);
+            song.setDuration(SONG_DURATIONS[i]);
+            song.setAlbum(ALBUM_NAME);
+            song.setTags(new ArrayList<>());
+            song.setLyrics("");
+            song.setGenre(i == 0 ? "pop" : "rock");
+            song.setReleaseYear(RELEASE_YEAR);
+            song.setArtist(artist);
+            songs.add(song);
+        }
+
+        CommandInput input = command(0);
+        input.setUsername(artist);
+        input.setName(ALBUM_NAME);
+        input.setReleaseYear(RELEASE_YEAR);
+        input.setDescription("");
+        input.setSongs(songs);
+        return input;
+    }
+
+    private static CommandInput podcastInput(final String host) {
+        ArrayList<EpisodeInput> episodes = new ArrayList<>();
+        for (int i = 0; i < EPISODE_NAMES.length; ++i) {
+            EpisodeInput episode = new EpisodeInput();
+            episode.setName(EPISODE_NAMES[i]);
+            episode.setDuration(EPISODE_DURATIONS[i]);
+            episode.setDescription("");
+            episodes.add(episode);
+        }
+
+        CommandInput input = command(0);
+        input.setUsername(host);
+        input.setName(PODCAST_NAME);
+        input.setEpisodes(episodes);
+        return input;
+    }
+
+    private static String describe(final User user, final Artist artist, final Host host) {
+        StringBuilder description = new StringBuilder();
+
+        user.calculateWrapped();
+        UserWrapped userWrapped = user.getWrapped();
+        description.append("user empty: ").append(userWrapped.isEmpty()).append('\n');
+        describeCounts(description, "user free songs",
+                userWrapped.getFreeSongDatabase(), song -> song.getName());
+        describeCounts(description, "user premium songs",
+                userWrapped.getPremiumSongDatabase(), song -> song.getName());
+        describeCounts(description, "user songs",
+                userWrapped.getMergedSongDatabase(), song -> song.getName());
+        describeCounts(description, "user albums",
+                userWrapped.getMergedAlbumDatabase(), album -> album.getName());
+        describeCounts(description, "user artists",
+                userWrapped.getArtistDatabase(), Artist::getUsername);
+        describeCounts(description, "user genres",
+                userWrapped.getGenreDatabase(), genre -> genre);
+        describeCounts(description, "user episodes",
+                userWrapped.getEpisodeDatabase(), episode -> episode.getName());
+
+        artist.calculateWrapped();
+        ArtistWrapped artistWrapped = artist.getWrapped();
+        description.append("artist listeners: ").append(artistWrapped.getListeners())
+                .append('\n');
+        describeCounts(description, "artist songs",
+                artistWrapped.getMergedSongDatabase(), song -> song.getName());
+        describeCounts(description, "artist albums",
+                artistWrapped.getMergedAlbumDatabase(), album -> album.getName());
+        describeCounts(description, "artist fans",
+                artistWrapped.getFanDatabase(), User::getUsername);
+
+        HostWrapped hostWrapped = host.getWrapped();
+        description.append("host listeners: ").append(hostWrapped.getListeners())
+                .append('\n');
+        describeCounts(description, "host episodes",
+                hostWrapped.getEpisodeDatabase(), episode -> episode.getName());
+        describeCounts(description, "host fans",
+                hostWrapped.getFanDatabase(), User::getUsername);
+
+        List<String> revenues = new ArrayList<>();
+        artist.getSongsRevenues().forEach((song, revenue) ->
+                revenues.add(song.getName() + "=" + revenue));
+        Collections.sort(revenues);
+        description.append("song revenues: ").append(revenues).append('\n');
+
+        Player player = user.getPlayer();
+        description.append("player: ").append(player.getRemainedTime())
+                .append(" remained, repeat ").append(player.getRepeat()).append('\n');
+        return description.toString();
+    }
+
+    private static <K> void describeCounts(final StringBuilder description, final String label,
+                                           final ListenCounts<K> counts,
+                                           final Function<K, String> name) {
+        List<String> entries = new ArrayList<>();
+        for (K key : counts.keys()) {
+            entries.add(name.apply(key) + "=" + counts.get(key));
+        }
+        Collections.sort(entries);
+        description.append(label).append(": ").append(entries).append('\n');
+    }
+}